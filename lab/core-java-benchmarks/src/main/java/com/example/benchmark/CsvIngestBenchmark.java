@@ -0,0 +1,75 @@
+package com.example.benchmark;
+
+import com.example.model.User;
+import com.example.service.CsvReader;
+import com.example.service.CsvService;
+import com.example.service.CsvTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Ingest cost of user.csv from 1K to 10M rows: lazy streaming, and tokenizing rows without
+ * building users. Materializing the whole list is measured by {@link CsvMaterializeBenchmark}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CsvIngestBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    private Path directory;
+    private CsvService csvService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = DatasetGenerator.createUsers(rows);
+        csvService = new CsvService(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        csvService.close();
+        DatasetGenerator.delete(directory);
+    }
+
+    @Benchmark
+    public void streamUsers(Blackhole blackhole) throws IOException {
+        try (Stream<User> users = csvService.streamUsers()) {
+            users.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void tokenizeRows(Blackhole blackhole) throws IOException {
+        try (CsvReader reader = CsvReader.open(directory.resolve(CsvService.USER_CSV))) {
+            while (reader.next()) {
+                CsvTokenizer record = reader.record();
+                for (int field = 0; field < record.fieldCount(); field++) {
+                    blackhole.consume(record.field(field));
+                }
+            }
+        }
+    }
+}
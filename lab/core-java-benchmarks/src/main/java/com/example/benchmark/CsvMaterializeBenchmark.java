@@ -0,0 +1,60 @@
+package com.example.benchmark;
+
+import com.example.model.User;
+import com.example.service.CsvService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full list materialization of user.csv through {@link CsvService#getUsers()}. Kept apart from
+ * {@link CsvIngestBenchmark} because the list has to fit in the heap together with the one being
+ * built by the next operation: 1M users take a few hundred MB, 10M would only measure the
+ * collector (or run out of memory) in a 4 GB fork.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CsvMaterializeBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private Path directory;
+    private CsvService csvService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = DatasetGenerator.createUsers(rows);
+        csvService = new CsvService(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        csvService.close();
+        DatasetGenerator.delete(directory);
+    }
+
+    @Benchmark
+    public List<User> getUsers() throws IOException {
+        return csvService.getUsers();
+    }
+}
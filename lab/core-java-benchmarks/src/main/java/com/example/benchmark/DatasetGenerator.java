@@ -0,0 +1,63 @@
+package com.example.benchmark;
+
+import com.example.model.User;
+import com.example.service.CsvService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Writes synthetic user.csv files through {@link CsvService#writeUsers(Path, Stream, boolean)},
+ * so they always have the layout core-java reads. Users are generated as they are written.
+ */
+public class DatasetGenerator {
+
+    private static final String[] FIRST_NAMES = {"John", "Sarah", "Michael", "Emily", "David", "Jessica",
+            "Christopher", "Amanda", "Matthew", "Ashley"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Brown", "Davis", "Wilson", "Miller",
+            "Garcia", "Martinez", "Anderson", "Taylor"};
+    private static final long FIRST_DOB = LocalDate.of(1960, 1, 1).toEpochDay();
+    private static final int DOB_RANGE_DAYS = 40 * 365;
+
+    /**
+     * A new temporary directory holding a user.csv of {@code rows} users.
+     */
+    public static Path createUsers(int rows) throws IOException {
+        Path directory = Files.createTempDirectory("csv-bench-");
+        writeUsers(directory.resolve(CsvService.USER_CSV), rows);
+        return directory;
+    }
+
+    public static void writeUsers(Path file, int rows) throws IOException {
+        Random random = new Random(rows);
+        Stream<User> users = IntStream.rangeClosed(1, rows).mapToObj(id -> user(id, random));
+        new CsvService(file.getParent()).writeUsers(file, users, false);
+    }
+
+    public static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static User user(int id, Random random) {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        User user = new User();
+        user.setId(String.valueOf(id));
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setDob(LocalDate.ofEpochDay(FIRST_DOB + random.nextInt(DOB_RANGE_DAYS)));
+        user.setUserName(firstName.toLowerCase() + "." + lastName.toLowerCase() + id);
+        user.setPassword("pass" + random.nextInt(1_000_000));
+        return user;
+    }
+}
@@ -4,15 +4,14 @@ import com.example.model.User;
 import com.example.service.CsvService;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.stream.Stream;
 
 public class App {
 
     public static void main(String[] args) throws IOException {
-        CsvService csvService = new CsvService();
-        List<User> users = csvService.getUsers();
-        for(User user : users){
-            System.out.println(user.getUserName());
+        try (CsvService csvService = new CsvService();
+             Stream<User> users = csvService.cachedUsers()) {
+            users.forEach(user -> System.out.println(user.getUserName()));
         }
     }
 }
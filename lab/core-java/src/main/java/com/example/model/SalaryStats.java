@@ -0,0 +1,52 @@
+package com.example.model;
+
+/**
+ * Salary aggregates of one group of staff. The sorted salaries are kept so any percentile
+ * can be read afterwards.
+ */
+public class SalaryStats {
+
+    private final double sum;
+    private final float[] sortedSalaries;
+
+    public SalaryStats(double sum, float[] sortedSalaries) {
+        this.sum = sum;
+        this.sortedSalaries = sortedSalaries;
+    }
+
+    public int getCount() {
+        return sortedSalaries.length;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getAverage() {
+        return sortedSalaries.length == 0 ? Double.NaN : sum / sortedSalaries.length;
+    }
+
+    public float getMin() {
+        return sortedSalaries.length == 0 ? Float.NaN : sortedSalaries[0];
+    }
+
+    public float getMax() {
+        return sortedSalaries.length == 0 ? Float.NaN : sortedSalaries[sortedSalaries.length - 1];
+    }
+
+    /**
+     * Percentile in {@code [0, 100]}, linearly interpolated between the closest ranks.
+     */
+    public double getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (sortedSalaries.length == 0) {
+            return Double.NaN;
+        }
+        double rank = percentile / 100 * (sortedSalaries.length - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = (int) Math.ceil(rank);
+        return sortedSalaries[lower] + (rank - lower) * (sortedSalaries[upper] - sortedSalaries[lower]);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.model;
+
+import java.util.Arrays;
+
+/**
+ * Column-oriented view of staff records: salaries live in a primitive {@code float[]}, with
+ * {@code NaN} for staff without a salary, and
+ * departments are dictionary-encoded as {@code int} codes into {@link #getDepartments()}. The
+ * codes are assigned by the caller, so they can be those of a dictionary shared with other views.
+ */
+public class StaffColumns {
+
+    private final String[] ids;
+    private final int[] departmentCodes;
+    private final float[] salaries;
+    private final String[] departments;
+
+    private StaffColumns(String[] ids, int[] departmentCodes, float[] salaries, String[] departments) {
+        this.ids = ids;
+        this.departmentCodes = departmentCodes;
+        this.salaries = salaries;
+        this.departments = departments;
+    }
+
+    public int size() {
+        return salaries.length;
+    }
+
+    public String getId(int row) {
+        return ids[row];
+    }
+
+    public String getDepartment(int row) {
+        return departments[departmentCodes[row]];
+    }
+
+    public float getSalary(int row) {
+        return salaries[row];
+    }
+
+    /**
+     * The department code of every row; the array is shared, not copied.
+     */
+    public int[] getDepartmentCodes() {
+        return departmentCodes;
+    }
+
+    /**
+     * The salary of every row; the array is shared, not copied.
+     */
+    public float[] getSalaries() {
+        return salaries;
+    }
+
+    /**
+     * The department dictionary, indexed by department code. It may hold departments that no
+     * row uses.
+     */
+    public String[] getDepartments() {
+        return departments;
+    }
+
+    public static class Builder {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private String[] ids = new String[INITIAL_CAPACITY];
+        private int[] departmentCodes = new int[INITIAL_CAPACITY];
+        private float[] salaries = new float[INITIAL_CAPACITY];
+        private int size;
+
+        public Builder add(String id, int departmentCode, float salary) {
+            if (departmentCode < 0) {
+                throw new IllegalArgumentException("Invalid department code for staff " + id + ": " + departmentCode);
+            }
+            if (size == salaries.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                departmentCodes = Arrays.copyOf(departmentCodes, size * 2);
+                salaries = Arrays.copyOf(salaries, size * 2);
+            }
+            ids[size] = id;
+            departmentCodes[size] = departmentCode;
+            salaries[size] = salary;
+            size++;
+            return this;
+        }
+
+        /**
+         * @param departments the department of every code added, indexed by code
+         */
+        public StaffColumns build(String[] departments) {
+            for (int row = 0; row < size; row++) {
+                if (departmentCodes[row] >= departments.length) {
+                    throw new IllegalArgumentException("No department for code " + departmentCodes[row]);
+                }
+            }
+            return new StaffColumns(Arrays.copyOf(ids, size), Arrays.copyOf(departmentCodes, size),
+                    Arrays.copyOf(salaries, size), departments);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+
+/**
+ * Persistent hash index from the first column of a CSV file to the byte offset of its record.
+ * The index is written once to {@code <file>.idx} and memory-mapped on later opens; it is
+ * rebuilt whenever the size or modification time of the CSV file no longer matches. The slot
+ * table is mapped in windows, so an index may grow past the 2 GiB limit of a single mapping.
+ */
+public class CsvIndex implements Closeable {
+
+    private static final int MAGIC = 0x43535649;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int SLOT_SIZE = 12;
+    private static final int WINDOW_SLOTS = 1 << 24;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int RECORD_BUFFER_SIZE = 256;
+
+    /**
+     * Slots are addressed by the 32-bit key hash, so more slots than hash values would never be
+     * reached; at most half of them are filled.
+     */
+    static final long MAX_RECORDS = 1L << 31;
+
+    private final FileChannel csv;
+    private final Slots slots;
+
+    private CsvIndex(FileChannel csv, Slots slots) {
+        this.csv = csv;
+        this.slots = slots;
+    }
+
+    public static CsvIndex open(Path csvFile) throws IOException {
+        return open(csvFile, WINDOW_SLOTS);
+    }
+
+    static CsvIndex open(Path csvFile, int windowSlots) throws IOException {
+        Path indexFile = csvFile.resolveSibling(csvFile.getFileName() + ".idx");
+        long size = Files.size(csvFile);
+        long modified = Files.getLastModifiedTime(csvFile).toMillis();
+        if (!isCurrent(indexFile, size, modified)) {
+            build(csvFile, indexFile, size, modified, windowSlots);
+        }
+        try (FileChannel index = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            long slotCount = readHeader(index).getLong(24);
+            Slots slots = Slots.map(index, FileChannel.MapMode.READ_ONLY, slotCount, windowSlots);
+            return new CsvIndex(FileChannel.open(csvFile, StandardOpenOption.READ), slots);
+        }
+    }
+
+    /**
+     * Maps the record whose first column equals {@code key}, or returns null when there is none.
+     */
+    public <T> T lookup(String key, Function<CsvTokenizer, T> mapper) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        long slot = slots.first(hash);
+        for (long probe = 0; probe <= slots.mask; probe++) {
+            long offset = slots.offset(slot);
+            if (offset == 0) {
+                return null;
+            }
+            if (slots.hash(slot) == hash) {
+                CsvTokenizer record = readRecord(offset - 1);
+                if (record.fieldCount() > 0 && record.fieldEquals(0, keyBytes)) {
+                    return mapper.apply(record);
+                }
+            }
+            slot = slots.next(slot);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        csv.close();
+    }
+
+    private CsvTokenizer readRecord(long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BUFFER_SIZE);
+        CsvTokenizer record = new CsvTokenizer(buffer);
+        while (true) {
+            boolean endOfInput = csv.read(buffer, offset + buffer.position()) < 0;
+            record.reset(buffer.duplicate().flip());
+            if (record.nextRecord(endOfInput) || endOfInput) {
+                return record;
+            }
+            if (!buffer.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                larger.put(buffer.flip());
+                buffer = larger;
+            }
+        }
+    }
+
+    private static boolean isCurrent(Path indexFile, long size, long modified) throws IOException {
+        if (!Files.exists(indexFile) || Files.size(indexFile) < HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel index = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(index);
+            long slotCount = header.getLong(24);
+            return header.getInt(0) == MAGIC
+                    && header.getInt(4) == VERSION
+                    && header.getLong(8) == size
+                    && header.getLong(16) == modified
+                    && slotCount > 0 && slotCount <= 2 * MAX_RECORDS
+                    && index.size() == HEADER_SIZE + slotCount * SLOT_SIZE;
+        }
+    }
+
+    private static ByteBuffer readHeader(FileChannel index) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && index.read(header, header.position()) >= 0) {
+            // read until full or end of file
+        }
+        return header.flip();
+    }
+
+    private static void build(Path csvFile, Path indexFile, long size, long modified, int windowSlots)
+            throws IOException {
+        long records = countRecords(csvFile);
+        if (records > MAX_RECORDS) {
+            throw new IllegalArgumentException("Cannot index " + csvFile + ": " + records
+                    + " lines is more than the " + MAX_RECORDS + " records an index supports");
+        }
+        long slotCount = Long.highestOneBit(Math.max(2, records * 2 - 1)) << 1;
+        Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (FileChannel index = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Slots slots = Slots.map(index, FileChannel.MapMode.READ_WRITE, slotCount, windowSlots);
+            try (CsvReader reader = CsvReader.open(csvFile)) {
+                if (reader.next()) {
+                    while (reader.next()) {
+                        slots.put(hash(reader.record().field(0)), reader.recordOffset());
+                    }
+                }
+            }
+            slots.force();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putLong(8, size);
+            header.putLong(16, modified);
+            header.putLong(24, slotCount);
+            while (header.hasRemaining()) {
+                index.write(header, header.position());
+            }
+            index.force(false);
+        }
+        Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static long countRecords(Path csvFile) throws IOException {
+        long records = 0;
+        try (FileChannel channel = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    if (buffer.get() == '\n') {
+                        records++;
+                    }
+                }
+                buffer.clear();
+            }
+        }
+        return records + 1;
+    }
+
+    private static int hash(String key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The slot table, one {@code (hash, record offset + 1)} pair per slot with 0 marking a free
+     * slot, mapped window by window after the header.
+     */
+    private static final class Slots {
+
+        private final MappedByteBuffer[] windows;
+        private final int windowShift;
+        private final long mask;
+
+        private Slots(MappedByteBuffer[] windows, int windowSlots, long slotCount) {
+            this.windows = windows;
+            this.windowShift = Integer.numberOfTrailingZeros(windowSlots);
+            this.mask = slotCount - 1;
+        }
+
+        static Slots map(FileChannel index, FileChannel.MapMode mode, long slotCount, int windowSlots)
+                throws IOException {
+            MappedByteBuffer[] windows = new MappedByteBuffer[(int) ((slotCount + windowSlots - 1) / windowSlots)];
+            for (int window = 0; window < windows.length; window++) {
+                long first = (long) window * windowSlots;
+                windows[window] = index.map(mode, HEADER_SIZE + first * SLOT_SIZE,
+                        Math.min(windowSlots, slotCount - first) * SLOT_SIZE);
+            }
+            return new Slots(windows, windowSlots, slotCount);
+        }
+
+        long first(int hash) {
+            return (hash & 0xFFFFFFFFL) & mask;
+        }
+
+        long next(long slot) {
+            return (slot + 1) & mask;
+        }
+
+        int hash(long slot) {
+            return window(slot).getInt(position(slot));
+        }
+
+        long offset(long slot) {
+            return window(slot).getLong(position(slot) + 4);
+        }
+
+        void put(int hash, long recordStart) {
+            long slot = first(hash);
+            while (offset(slot) != 0) {
+                slot = next(slot);
+            }
+            window(slot).putInt(position(slot), hash);
+            window(slot).putLong(position(slot) + 4, recordStart + 1);
+        }
+
+        void force() {
+            for (MappedByteBuffer window : windows) {
+                window.force();
+            }
+        }
+
+        private MappedByteBuffer window(long slot) {
+            return windows[(int) (slot >>> windowShift)];
+        }
+
+        private int position(long slot) {
+            return (int) (slot & ((1L << windowShift) - 1)) * SLOT_SIZE;
+        }
+    }
+}
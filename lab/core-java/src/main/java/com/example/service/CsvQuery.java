@@ -0,0 +1,178 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Filter and projection over one CSV file, with columns named as in its header. Predicates run
+ * against the tokenized bytes of each record before any object is built, and only selected
+ * columns are ever decoded into Strings.
+ *
+ * <pre>
+ * csvService.queryCustomers().where("region", "Europe").select("user-id", "currency").stream()
+ * </pre>
+ */
+public class CsvQuery<T> {
+
+    public interface FieldPredicate {
+
+        boolean test(CsvTokenizer record, int field);
+    }
+
+    private final Path file;
+    private final Function<CsvTokenizer, T> mapper;
+    private final List<String> filterColumns = new ArrayList<>();
+    private final List<FieldPredicate> filters = new ArrayList<>();
+    private String[] selectedColumns;
+
+    public CsvQuery(Path file, Function<CsvTokenizer, T> mapper) {
+        this.file = file;
+        this.mapper = mapper;
+    }
+
+    public CsvQuery<T> where(String column, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return where(column, (record, field) -> record.fieldEquals(field, bytes));
+    }
+
+    public CsvQuery<T> whereIn(String column, String... values) {
+        byte[][] candidates = new byte[values.length][];
+        for (int index = 0; index < values.length; index++) {
+            candidates[index] = values[index].getBytes(StandardCharsets.UTF_8);
+        }
+        return where(column, (record, field) -> {
+            for (byte[] candidate : candidates) {
+                if (record.fieldEquals(field, candidate)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Keeps records whose integral {@code column} lies in {@code [min, max]}; an empty value
+     * never matches.
+     */
+    public CsvQuery<T> whereBetween(String column, long min, long max) {
+        return where(column, (record, field) -> {
+            if (record.isEmpty(field)) {
+                return false;
+            }
+            long value = record.fieldAsLong(field);
+            return value >= min && value <= max;
+        });
+    }
+
+    public CsvQuery<T> where(String column, FieldPredicate predicate) {
+        filterColumns.add(column);
+        filters.add(predicate);
+        return this;
+    }
+
+    /**
+     * Columns returned by {@link #stream()}, in order; all columns when never called.
+     */
+    public CsvQuery<T> select(String... columns) {
+        this.selectedColumns = columns.clone();
+        return this;
+    }
+
+    /**
+     * Matching records projected to the selected columns.
+     */
+    public Stream<String[]> stream() throws IOException {
+        CsvReader reader = CsvReader.open(file);
+        try {
+            List<String> header = readHeader(reader);
+            int[] projection;
+            if (selectedColumns == null) {
+                projection = new int[header.size()];
+                Arrays.setAll(projection, index -> index);
+            } else {
+                projection = indexesOf(header, Arrays.asList(selectedColumns));
+            }
+            return reader.map(filter(header), record -> {
+                String[] values = new String[projection.length];
+                for (int index = 0; index < projection.length; index++) {
+                    int field = projection[index];
+                    values[index] = field < record.fieldCount() ? record.field(field) : null;
+                }
+                return values;
+            });
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Matching records built as model objects; rejected records are never materialized.
+     */
+    public Stream<T> records() throws IOException {
+        CsvReader reader = CsvReader.open(file);
+        try {
+            return reader.map(filter(readHeader(reader)), mapper);
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    public long count() throws IOException {
+        try (CsvReader reader = CsvReader.open(file)) {
+            Predicate<CsvTokenizer> filter = filter(readHeader(reader));
+            long count = 0;
+            while (reader.next()) {
+                if (filter.test(reader.record())) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private Predicate<CsvTokenizer> filter(List<String> header) {
+        int[] fields = indexesOf(header, filterColumns);
+        FieldPredicate[] predicates = filters.toArray(new FieldPredicate[0]);
+        return record -> {
+            for (int index = 0; index < predicates.length; index++) {
+                int field = fields[index];
+                if (field >= record.fieldCount() || !predicates[index].test(record, field)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static List<String> readHeader(CsvReader reader) throws IOException {
+        List<String> header = new ArrayList<>();
+        if (reader.next()) {
+            CsvTokenizer record = reader.record();
+            for (int field = 0; field < record.fieldCount(); field++) {
+                header.add(record.field(field));
+            }
+        }
+        return header;
+    }
+
+    private int[] indexesOf(List<String> header, List<String> columns) {
+        int[] indexes = new int[columns.size()];
+        for (int index = 0; index < indexes.length; index++) {
+            indexes[index] = header.indexOf(columns.get(index));
+            if (indexes[index] < 0) {
+                throw new IllegalArgumentException("Unknown column '" + columns.get(index) + "' in " + file
+                        + ", expected one of " + header);
+            }
+        }
+        return indexes;
+    }
+}
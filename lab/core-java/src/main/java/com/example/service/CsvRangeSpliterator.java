@@ -0,0 +1,76 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Spliterator over a byte range of a CSV file. Splitting halves the range at the next record
+ * boundary, so a parallel stream hands each fork-join worker its own slice of the file to
+ * tokenize. Splits are prefixes, which keeps the encounter order equal to the row order.
+ */
+class CsvRangeSpliterator<T> implements Spliterator<T> {
+
+    private static final long MIN_SPLIT_SIZE = 256 * 1024;
+
+    private final FileChannel file;
+    private final Function<CsvTokenizer, T> mapper;
+    private long start;
+    private final long end;
+    private CsvReader reader;
+
+    CsvRangeSpliterator(FileChannel file, long start, long end, Function<CsvTokenizer, T> mapper) {
+        this.file = file;
+        this.start = start;
+        this.end = end;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        try {
+            if (reader == null) {
+                reader = CsvReader.open(file, start, end);
+            }
+            if (!reader.next()) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        action.accept(mapper.apply(reader.record()));
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (reader != null || end - start < 2 * MIN_SPLIT_SIZE) {
+            return null;
+        }
+        long middle;
+        try {
+            middle = CsvReader.alignToRecord(file, start + (end - start) / 2);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (middle <= start || middle >= end) {
+            return null;
+        }
+        CsvRangeSpliterator<T> prefix = new CsvRangeSpliterator<>(file, start, middle, mapper);
+        start = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - start;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads CSV records from a channel through a single reusable direct buffer, so memory use is
+ * bounded by the longest record rather than the size of the file.
+ */
+public class CsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final CsvTokenizer tokenizer;
+    private ByteBuffer buffer;
+    private long bufferOffset;
+    private boolean endOfInput;
+
+    public CsvReader(ReadableByteChannel channel) {
+        this(channel, 0);
+    }
+
+    private CsvReader(ReadableByteChannel channel, long offset) {
+        this.channel = channel;
+        this.bufferOffset = offset;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).flip();
+        this.tokenizer = new CsvTokenizer(buffer);
+    }
+
+    /**
+     * Opens {@code file}, decompressing it on the fly when its name ends with {@code .gz}.
+     */
+    public static CsvReader open(Path file) throws IOException {
+        if (file.getFileName().toString().endsWith(".gz")) {
+            return new CsvReader(Channels.newChannel(new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE)));
+        }
+        return new CsvReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Reads only the records in {@code [start, end)} of a shared file channel, using positional
+     * reads so several readers can work on one channel concurrently. Closing the returned reader
+     * leaves the channel open. Both bounds must fall on record boundaries.
+     */
+    public static CsvReader open(FileChannel file, long start, long end) {
+        return new CsvReader(new RegionChannel(file, start, end), start);
+    }
+
+    /**
+     * Returns the offset of the first record starting at or after {@code offset}, i.e. the byte
+     * after the next line break, or the file size when there is none. Line breaks inside quoted
+     * fields are not recognised, so files split this way must not contain them.
+     */
+    public static long alignToRecord(FileChannel file, long offset) throws IOException {
+        if (offset == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long position = offset - 1;
+        while (true) {
+            buffer.clear();
+            int read = file.read(buffer, position);
+            if (read < 0) {
+                return file.size();
+            }
+            for (int index = 0; index < read; index++) {
+                if (buffer.get(index) == '\n') {
+                    return position + index + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    public boolean next() throws IOException {
+        while (!tokenizer.nextRecord(endOfInput)) {
+            if (endOfInput) {
+                return false;
+            }
+            fill();
+        }
+        return true;
+    }
+
+    /**
+     * The tokenized current record; only valid until the next call to {@link #next()}.
+     */
+    public CsvTokenizer record() {
+        return tokenizer;
+    }
+
+    /**
+     * Byte offset of the current record from the start of the channel.
+     */
+    public long recordOffset() {
+        return bufferOffset + tokenizer.recordStart();
+    }
+
+    /**
+     * Maps the remaining records lazily; closing the stream closes this reader.
+     */
+    public <T> Stream<T> map(Function<CsvTokenizer, T> mapper) {
+        return map(record -> true, mapper);
+    }
+
+    /**
+     * Maps only the remaining records accepted by {@code filter}, which sees the tokenized bytes
+     * before anything is built. Closing the stream closes this reader.
+     */
+    public <T> Stream<T> map(Predicate<CsvTokenizer> filter, Function<CsvTokenizer, T> mapper) {
+        Spliterator<T> records = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    do {
+                        if (!next()) {
+                            return false;
+                        }
+                    } while (!filter.test(tokenizer));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                action.accept(mapper.apply(tokenizer));
+                return true;
+            }
+        };
+        return StreamSupport.stream(records, false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void fill() throws IOException {
+        int consumed = tokenizer.position();
+        buffer.position(consumed);
+        buffer.compact();
+        bufferOffset += consumed;
+        if (!buffer.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        if (channel.read(buffer) < 0) {
+            endOfInput = true;
+        }
+        buffer.flip();
+        tokenizer.reset(buffer);
+    }
+
+    private static class RegionChannel implements ReadableByteChannel {
+
+        private final FileChannel file;
+        private final long end;
+        private long position;
+
+        RegionChannel(FileChannel file, long start, long end) {
+            this.file = file;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            long remaining = end - position;
+            if (remaining <= 0) {
+                return -1;
+            }
+            int limit = destination.limit();
+            if (destination.remaining() > remaining) {
+                destination.limit(destination.position() + (int) remaining);
+            }
+            try {
+                int read = file.read(destination, position);
+                if (read > 0) {
+                    position += read;
+                }
+                return read;
+            } finally {
+                destination.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return file.isOpen();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
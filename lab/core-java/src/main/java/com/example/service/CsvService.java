@@ -1,34 +1,346 @@
 package com.example.service;
 
+import com.example.model.Customer;
+import com.example.model.Staff;
+import com.example.model.StaffColumns;
 import com.example.model.User;
 
+import java.io.Closeable;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class CsvService {
+public class CsvService implements Closeable {
+
+    public static final String USER_CSV = "user.csv";
+    public static final String STAFF_CSV = "staff.csv";
+    public static final String CUSTOMER_CSV = "customer.csv";
+    public static final String USER_HEADER = "id, first-name, last-name, dob, user-name, password";
+    public static final String STAFF_HEADER = "user-id, department, salary";
+    public static final String CUSTOMER_HEADER = "user-id, customer-id, region, currency";
+
+    private static final Path DEFAULT_DIRECTORY = Paths.get("src/main/resources");
+
+    private final Path directory;
+    private final StringDictionary departments = new StringDictionary();
+    private final StringDictionary regions = new StringDictionary();
+    private final StringDictionary currencies = new StringDictionary();
+    private CsvIndex userIndex;
+
+    public CsvService() {
+        this(DEFAULT_DIRECTORY);
+    }
+
+    public CsvService(Path directory) {
+        this.directory = directory;
+    }
 
     public List<User> getUsers() throws IOException {
-        List<User> result = new ArrayList<>();
-        List<String> lines = Files.readAllLines(Paths.get("src/main/resources/user.csv"));
-        for(int index = 1; index < lines.size(); index ++){
-            String record = lines.get(index);
-            String[] recordTokens = record.split(",");
-            User user = new User();
-            user.setId(recordTokens[0]);
-            user.setFirstName(recordTokens[1]);
-            user.setLastName(recordTokens[2]);
-            // user.setDob(LocalDate.);
-            user.setUserName(recordTokens[4]);
-            user.setPassword(recordTokens[5]);
-            result.add(user);
-        }
-        return result;
-    }
-
-    public User getUser(String userId){
-        return null;
+        try (Stream<User> users = streamUsers()) {
+            return users.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Lazily reads user.csv; records are built only as the stream is consumed.
+     * The caller must close the stream to release the underlying file.
+     */
+    public Stream<User> streamUsers() throws IOException {
+        return stream(USER_CSV, this::toUser);
+    }
+
+    public Stream<Staff> streamStaff() throws IOException {
+        return stream(STAFF_CSV, this::toStaff);
+    }
+
+    public Stream<Customer> streamCustomers() throws IOException {
+        return stream(CUSTOMER_CSV, this::toCustomer);
+    }
+
+    /**
+     * Starts a query over user.csv whose filters run on the raw record bytes.
+     */
+    public CsvQuery<User> queryUsers() {
+        return new CsvQuery<>(directory.resolve(USER_CSV), this::toUser);
+    }
+
+    public CsvQuery<Staff> queryStaff() {
+        return new CsvQuery<>(directory.resolve(STAFF_CSV), this::toStaff);
+    }
+
+    public CsvQuery<Customer> queryCustomers() {
+        return new CsvQuery<>(directory.resolve(CUSTOMER_CSV), this::toCustomer);
+    }
+
+    /**
+     * Reads user.csv from its binary snapshot, (re)writing the snapshot first when it is missing
+     * or the CSV file has changed since it was taken.
+     */
+    public Stream<User> cachedUsers() throws IOException {
+        return CsvSnapshot.open(directory.resolve(USER_CSV), CsvSnapshot.USER, this::streamUsers);
+    }
+
+    public Stream<Staff> cachedStaff() throws IOException {
+        return CsvSnapshot.open(directory.resolve(STAFF_CSV), CsvSnapshot.STAFF, this::streamStaff)
+                .map(this::canonicalize);
+    }
+
+    public Stream<Customer> cachedCustomers() throws IOException {
+        return CsvSnapshot.open(directory.resolve(CUSTOMER_CSV), CsvSnapshot.CUSTOMER, this::streamCustomers)
+                .map(this::canonicalize);
+    }
+
+    /**
+     * Tails user.csv, pushing appended records to {@code listener} until the watcher is closed.
+     */
+    public CsvWatcher<User> watchUsers(CsvWatcher.Listener<User> listener) throws IOException {
+        return new CsvWatcher<>(directory.resolve(USER_CSV), this::toUser).subscribe(listener).start();
+    }
+
+    public CsvWatcher<Staff> watchStaff(CsvWatcher.Listener<Staff> listener) throws IOException {
+        return new CsvWatcher<>(directory.resolve(STAFF_CSV), this::toStaff).subscribe(listener).start();
+    }
+
+    public CsvWatcher<Customer> watchCustomers(CsvWatcher.Listener<Customer> listener) throws IOException {
+        return new CsvWatcher<>(directory.resolve(CUSTOMER_CSV), this::toCustomer).subscribe(listener).start();
+    }
+
+    /**
+     * Loads staff.csv straight into columns without creating a {@link Staff} per row. Department
+     * codes are those of {@link #getDepartments()}.
+     */
+    public StaffColumns getStaffColumns() throws IOException {
+        StaffColumns.Builder columns = new StaffColumns.Builder();
+        try (CsvReader reader = CsvReader.open(directory.resolve(STAFF_CSV))) {
+            if (reader.next()) {
+                while (reader.next()) {
+                    CsvTokenizer record = reader.record();
+                    float salary = record.isEmpty(2) ? Float.NaN : record.fieldAsFloat(2);
+                    columns.add(record.field(0), departments.code(record, 1), salary);
+                }
+            }
+        }
+        return columns.build(departments.values());
+    }
+
+    /**
+     * Canonical department values shared by every {@link Staff} this service creates.
+     */
+    public StringDictionary getDepartments() {
+        return departments;
+    }
+
+    public StringDictionary getRegions() {
+        return regions;
+    }
+
+    public StringDictionary getCurrencies() {
+        return currencies;
+    }
+
+    /**
+     * Parallel variant of {@link #streamUsers()}: the file is split into line-aligned byte ranges
+     * that are tokenized concurrently on the fork-join pool running the terminal operation.
+     * Collecting keeps the original row order; call {@code unordered()} when it is not needed.
+     */
+    public Stream<User> parallelStreamUsers() throws IOException {
+        return parallelStream(USER_CSV, this::toUser);
+    }
+
+    public Stream<Staff> parallelStreamStaff() throws IOException {
+        return parallelStream(STAFF_CSV, this::toStaff);
+    }
+
+    public Stream<Customer> parallelStreamCustomers() throws IOException {
+        return parallelStream(CUSTOMER_CSV, this::toCustomer);
+    }
+
+    /**
+     * Loads user.csv on the given pool, keeping row order when {@code ordered} is set.
+     */
+    public List<User> getUsers(ForkJoinPool pool, boolean ordered) throws IOException {
+        try (Stream<User> users = parallelStreamUsers()) {
+            Stream<User> source = ordered ? users : users.unordered();
+            return pool.submit(() -> source.collect(Collectors.toList())).join();
+        }
+    }
+
+    /**
+     * Writes users to {@code file} in the layout of user.csv, header included, gzip-compressed
+     * when {@code gzip} is set. The result reads back through {@link CsvReader}.
+     */
+    public void writeUsers(Path file, Iterable<? extends User> users, boolean gzip) throws IOException {
+        write(file, USER_HEADER, users.iterator(), gzip, (writer, user) -> writer
+                .field(user.getId())
+                .field(user.getFirstName())
+                .field(user.getLastName())
+                .packedDate(user.getPackedDob())
+                .field(user.getUserName())
+                .field(user.getPassword()));
+    }
+
+    public void writeUsers(Path file, Stream<? extends User> users, boolean gzip) throws IOException {
+        writeUsers(file, (Iterable<User>) users.map(User.class::cast)::iterator, gzip);
+    }
+
+    public void writeStaff(Path file, Iterable<? extends Staff> staff, boolean gzip) throws IOException {
+        write(file, STAFF_HEADER, staff.iterator(), gzip, (writer, member) -> writer
+                .field(member.getId())
+                .field(member.getDepartment())
+                .field(member.getSalary()));
+    }
+
+    public void writeStaff(Path file, Stream<? extends Staff> staff, boolean gzip) throws IOException {
+        writeStaff(file, (Iterable<Staff>) staff.map(Staff.class::cast)::iterator, gzip);
+    }
+
+    public void writeCustomers(Path file, Iterable<? extends Customer> customers, boolean gzip) throws IOException {
+        write(file, CUSTOMER_HEADER, customers.iterator(), gzip, (writer, customer) -> writer
+                .field(customer.getId())
+                .field(customer.getCustomerId())
+                .field(customer.getRegion())
+                .field(customer.getCurrency()));
+    }
+
+    public void writeCustomers(Path file, Stream<? extends Customer> customers, boolean gzip) throws IOException {
+        writeCustomers(file, (Iterable<Customer>) customers.map(Customer.class::cast)::iterator, gzip);
+    }
+
+    /**
+     * Looks a user up by id through the persistent offset index of user.csv,
+     * building the index on first use.
+     */
+    public User getUser(String userId) throws IOException {
+        return userIndex().lookup(userId, this::toUser);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (userIndex != null) {
+            userIndex.close();
+            userIndex = null;
+        }
+    }
+
+    private synchronized CsvIndex userIndex() throws IOException {
+        if (userIndex == null) {
+            userIndex = CsvIndex.open(directory.resolve(USER_CSV));
+        }
+        return userIndex;
+    }
+
+    Path resolve(String fileName) {
+        return directory.resolve(fileName);
+    }
+
+    <T> Stream<T> stream(String fileName, Function<CsvTokenizer, T> mapper) throws IOException {
+        CsvReader reader = CsvReader.open(directory.resolve(fileName));
+        try {
+            reader.next();
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+        return reader.map(mapper);
+    }
+
+    private <T> Stream<T> parallelStream(String fileName, Function<CsvTokenizer, T> mapper) throws IOException {
+        FileChannel file = FileChannel.open(directory.resolve(fileName), StandardOpenOption.READ);
+        try {
+            long start = CsvReader.alignToRecord(file, 1);
+            return StreamSupport.stream(new CsvRangeSpliterator<>(file, start, file.size(), mapper), true)
+                    .onClose(() -> {
+                        try {
+                            file.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private interface RecordWriter<T> {
+
+        void write(CsvWriter writer, T record) throws IOException;
+    }
+
+    private <T> void write(Path file, String header, Iterator<T> records, boolean gzip,
+                           RecordWriter<? super T> fields) throws IOException {
+        try (CsvWriter writer = CsvWriter.open(file, gzip)) {
+            writer.writeRecord(columns(header));
+            while (records.hasNext()) {
+                fields.write(writer, records.next());
+                writer.endRecord();
+            }
+        }
+    }
+
+    /**
+     * The cells of a header line, tokenized like the data rows so quoting and spacing agree.
+     */
+    static String[] columns(String header) {
+        CsvTokenizer record = new CsvTokenizer(ByteBuffer.wrap(header.getBytes(StandardCharsets.UTF_8)));
+        if (!record.nextRecord(true)) {
+            return new String[0];
+        }
+        String[] columns = new String[record.fieldCount()];
+        for (int field = 0; field < columns.length; field++) {
+            columns[field] = record.field(field);
+        }
+        return columns;
+    }
+
+    User toUser(CsvTokenizer record) {
+        User user = new User();
+        user.setId(record.field(0));
+        user.setFirstName(record.field(1));
+        user.setLastName(record.field(2));
+        user.setPackedDob(record.fieldAsPackedDate(3));
+        user.setUserName(record.field(4));
+        user.setPassword(record.field(5));
+        return user;
+    }
+
+    Staff toStaff(CsvTokenizer record) {
+        Staff staff = new Staff();
+        staff.setId(record.field(0));
+        staff.setDepartment(departments.intern(record, 1));
+        staff.setSalary(record.isEmpty(2) ? null : record.fieldAsFloat(2));
+        return staff;
+    }
+
+    Customer toCustomer(CsvTokenizer record) {
+        Customer customer = new Customer();
+        customer.setId(record.field(0));
+        customer.setCustomerId(record.field(1));
+        customer.setRegion(regions.intern(record, 2));
+        customer.setCurrency(currencies.intern(record, 3));
+        return customer;
+    }
+
+    private Staff canonicalize(Staff staff) {
+        staff.setDepartment(departments.intern(staff.getDepartment()));
+        return staff;
+    }
+
+    private Customer canonicalize(Customer customer) {
+        customer.setRegion(regions.intern(customer.getRegion()));
+        customer.setCurrency(currencies.intern(customer.getCurrency()));
+        return customer;
     }
 }
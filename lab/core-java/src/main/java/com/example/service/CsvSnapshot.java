@@ -0,0 +1,331 @@
+package com.example.service;
+
+import com.example.model.Customer;
+import com.example.model.Staff;
+import com.example.model.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshot of parsed CSV records, stored as {@code <file>.snap} next to the CSV file.
+ * The header records the size, modification time and CRC32C of the source and the record count.
+ * When size and modification time still match, records are decoded from memory-mapped windows of
+ * the snapshot instead of re-tokenizing the text, without reading the CSV file at all. The CRC is
+ * only computed when a snapshot is written, or to keep it when the file was touched but the size
+ * is unchanged. Dates stay packed as {@code yyyyMMdd} ints, and each record is length-prefixed so
+ * a window never has to split one.
+ */
+public class CsvSnapshot {
+
+    public interface Codec<T> {
+
+        void write(T value, ByteBuffer out);
+
+        T read(ByteBuffer in);
+    }
+
+    public interface Source<T> {
+
+        Stream<T> open() throws IOException;
+    }
+
+    public static final Codec<User> USER = new Codec<>() {
+        @Override
+        public void write(User value, ByteBuffer out) {
+            putUser(value, out);
+        }
+
+        @Override
+        public User read(ByteBuffer in) {
+            return getUser(new User(), in);
+        }
+    };
+
+    public static final Codec<Staff> STAFF = new Codec<>() {
+        @Override
+        public void write(Staff value, ByteBuffer out) {
+            putUser(value, out);
+            putString(out, value.getDepartment());
+            out.put((byte) (value.getSalary() == null ? 0 : 1));
+            out.putFloat(value.getSalary() == null ? 0 : value.getSalary());
+        }
+
+        @Override
+        public Staff read(ByteBuffer in) {
+            Staff staff = getUser(new Staff(), in);
+            staff.setDepartment(getString(in));
+            boolean hasSalary = in.get() != 0;
+            float salary = in.getFloat();
+            staff.setSalary(hasSalary ? salary : null);
+            return staff;
+        }
+    };
+
+    public static final Codec<Customer> CUSTOMER = new Codec<>() {
+        @Override
+        public void write(Customer value, ByteBuffer out) {
+            putUser(value, out);
+            putString(out, value.getCustomerId());
+            putString(out, value.getRegion());
+            putString(out, value.getCurrency());
+        }
+
+        @Override
+        public Customer read(ByteBuffer in) {
+            Customer customer = getUser(new Customer(), in);
+            customer.setCustomerId(getString(in));
+            customer.setRegion(getString(in));
+            customer.setCurrency(getString(in));
+            return customer;
+        }
+    };
+
+    private static final int MAGIC = 0x43535653;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 40;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private record Header(long size, long modified, long checksum, long count) {
+    }
+
+    private CsvSnapshot() {
+    }
+
+    /**
+     * Streams the records of {@code csvFile} from its snapshot, first writing the snapshot from
+     * {@code source} when it is missing or no longer matches the CSV file.
+     */
+    public static <T> Stream<T> open(Path csvFile, Codec<T> codec, Source<T> source) throws IOException {
+        Path snapshot = csvFile.resolveSibling(csvFile.getFileName() + ".snap");
+        long size = Files.size(csvFile);
+        long modified = Files.getLastModifiedTime(csvFile).toMillis();
+        Header header = readHeader(snapshot);
+        if (header == null || header.size() != size) {
+            header = write(snapshot, codec, source, size, modified, checksum(csvFile));
+        } else if (header.modified() != modified) {
+            // Touched or checked out again: the content decides whether the snapshot can be kept
+            long checksum = checksum(csvFile);
+            if (header.checksum() == checksum) {
+                header = updateModified(snapshot, header, modified);
+            } else {
+                header = write(snapshot, codec, source, size, modified, checksum);
+            }
+        }
+        return read(snapshot, codec, header.count());
+    }
+
+    /**
+     * The header of {@code snapshot}, or null when there is none or it was written by another
+     * version or cut short.
+     */
+    private static Header readHeader(Path snapshot) throws IOException {
+        if (!Files.exists(snapshot) || Files.size(snapshot) < HEADER_SIZE) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            long count = header.getLong(32);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || count < 0
+                    || channel.size() < HEADER_SIZE + count * Integer.BYTES) {
+                return null;
+            }
+            return new Header(header.getLong(8), header.getLong(16), header.getLong(24), count);
+        }
+    }
+
+    private static Header updateModified(Path snapshot, Header header, long modified) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, modified), 16);
+        }
+        return new Header(header.size(), modified, header.checksum(), header.count());
+    }
+
+    private static <T> Header write(Path snapshot, Codec<T> codec, Source<T> source, long size, long modified,
+                                    long checksum) throws IOException {
+        Path tempFile = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Stream<T> records = source.open()) {
+            ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            ByteBuffer record = ByteBuffer.allocate(256);
+            out.position(HEADER_SIZE); // placeholder, the header is written once the count is known
+            for (T value : (Iterable<T>) records::iterator) {
+                record = encode(codec, value, record);
+                if (out.remaining() < Integer.BYTES + record.remaining()) {
+                    drain(channel, out);
+                    if (out.remaining() < Integer.BYTES + record.remaining()) {
+                        out = ByteBuffer.allocateDirect(Integer.BYTES + record.remaining());
+                    }
+                }
+                out.putInt(record.remaining());
+                out.put(record);
+                count++;
+            }
+            drain(channel, out);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(size).putLong(modified).putLong(checksum).putLong(count);
+            channel.write(header.flip(), 0);
+            channel.force(false);
+        }
+        Files.move(tempFile, snapshot, StandardCopyOption.REPLACE_EXISTING);
+        return new Header(size, modified, checksum, count);
+    }
+
+    private static <T> Stream<T> read(Path snapshot, Codec<T> codec, long count) throws IOException {
+        FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ);
+        long end;
+        try {
+            end = channel.size();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        Spliterator<T> records = new Spliterators.AbstractSpliterator<T>(count,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED) {
+            private long position = HEADER_SIZE;
+            private long remaining = count;
+            private long windowStart;
+            private MappedByteBuffer window;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (remaining == 0) {
+                    return false;
+                }
+                int length = -1;
+                if (position + Integer.BYTES <= end) {
+                    ensure(Integer.BYTES);
+                    length = window.getInt((int) (position - windowStart));
+                }
+                if (length < 0 || position + Integer.BYTES + length > end) {
+                    throw new IllegalStateException("Snapshot " + snapshot + " is cut short: " + remaining
+                            + " of " + count + " records missing at byte " + position);
+                }
+                ensure(Integer.BYTES + length);
+                int start = (int) (position - windowStart) + Integer.BYTES;
+                ByteBuffer record = window.duplicate().limit(start + length).position(start);
+                position += Integer.BYTES + length;
+                remaining--;
+                action.accept(codec.read(record));
+                return true;
+            }
+
+            private void ensure(int bytes) {
+                if (window != null && position + bytes <= windowStart + window.limit()) {
+                    return;
+                }
+                try {
+                    windowStart = position;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                            Math.min(end - position, Math.max(WINDOW_SIZE, bytes)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(records, false).onClose(() -> {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static <T> ByteBuffer encode(Codec<T> codec, T value, ByteBuffer record) {
+        while (true) {
+            try {
+                record.clear();
+                codec.write(value, record);
+                return record.flip();
+            } catch (BufferOverflowException e) {
+                record = ByteBuffer.allocate(record.capacity() * 2);
+            }
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    private static long checksum(Path csvFile) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                crc.update(buffer.flip());
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static void putUser(User user, ByteBuffer out) {
+        putString(out, user.getId());
+        putString(out, user.getFirstName());
+        putString(out, user.getLastName());
+        out.putInt(user.getPackedDob());
+        putString(out, user.getUserName());
+        putString(out, user.getPassword());
+    }
+
+    private static <T extends User> T getUser(T user, ByteBuffer in) {
+        user.setId(getString(in));
+        user.setFirstName(getString(in));
+        user.setLastName(getString(in));
+        user.setPackedDob(in.getInt());
+        user.setUserName(getString(in));
+        user.setPassword(getString(in));
+        return user;
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(in.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(in.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,359 @@
+package com.example.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Arrays;
+
+/**
+ * Splits CSV records directly on the bytes of a heap, direct or memory-mapped {@link ByteBuffer}.
+ * Only field boundaries are recorded while tokenizing; a String is created when a caller asks
+ * for a field, so unread columns cost nothing. Unquoted fields are trimmed, which covers the
+ * {@code ", "} separator used by the bundled files, and quoted fields may contain separators,
+ * line breaks and doubled quotes.
+ */
+public class CsvTokenizer {
+
+    private static final byte SEPARATOR = ',';
+    private static final byte QUOTE = '"';
+    private static final int INITIAL_FIELDS = 16;
+
+    private ByteBuffer buffer;
+    private int position;
+    private int limit;
+    private int recordStart;
+    private int fieldCount;
+    private int[] starts = new int[INITIAL_FIELDS];
+    private int[] ends = new int[INITIAL_FIELDS];
+    private boolean[] escaped = new boolean[INITIAL_FIELDS];
+    private byte[] scratch = new byte[64];
+
+    public CsvTokenizer(ByteBuffer buffer) {
+        reset(buffer);
+    }
+
+    /**
+     * Tokenizes the bytes between the buffer's current position and limit from the start.
+     */
+    public void reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+        this.fieldCount = 0;
+    }
+
+    /**
+     * Advances to the next non-blank record. When {@code endOfInput} is false a record that runs
+     * into the limit is treated as incomplete: false is returned and {@link #position()} stays at
+     * its first byte so the caller can refill the buffer and retry.
+     */
+    public boolean nextRecord(boolean endOfInput) {
+        int index = position;
+        fieldCount = 0;
+        while (true) {
+            while (index < limit && isBlank(buffer.get(index))) {
+                index++;
+            }
+            if (fieldCount == 0 && index < limit && isLineBreak(buffer.get(index))) {
+                index++;
+                position = index;
+                continue;
+            }
+            if (index >= limit && fieldCount == 0) {
+                if (endOfInput) {
+                    position = limit;
+                }
+                return false;
+            }
+            if (fieldCount == 0) {
+                recordStart = position;
+            }
+            if (index < limit && buffer.get(index) == QUOTE) {
+                int start = index + 1;
+                boolean doubled = false;
+                index = start;
+                while (true) {
+                    if (index >= limit) {
+                        if (!endOfInput) {
+                            return false;
+                        }
+                        break;
+                    }
+                    if (buffer.get(index) == QUOTE) {
+                        if (index + 1 >= limit && !endOfInput) {
+                            return false;
+                        }
+                        if (index + 1 < limit && buffer.get(index + 1) == QUOTE) {
+                            doubled = true;
+                            index += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    index++;
+                }
+                addField(start, Math.min(index, limit), doubled);
+                index++;
+                while (index < limit && buffer.get(index) != SEPARATOR && !isLineBreak(buffer.get(index))) {
+                    index++;
+                }
+            } else {
+                int start = index;
+                while (index < limit && buffer.get(index) != SEPARATOR && !isLineBreak(buffer.get(index))) {
+                    index++;
+                }
+                int end = index;
+                while (end > start && isBlank(buffer.get(end - 1))) {
+                    end--;
+                }
+                addField(start, end, false);
+            }
+            if (index >= limit) {
+                if (!endOfInput) {
+                    return false;
+                }
+                position = limit;
+                return true;
+            }
+            byte value = buffer.get(index);
+            if (value == SEPARATOR) {
+                index++;
+                continue;
+            }
+            index++;
+            if (value == '\r') {
+                if (index >= limit && !endOfInput) {
+                    return false;
+                }
+                if (index < limit && buffer.get(index) == '\n') {
+                    index++;
+                }
+            }
+            position = index;
+            return true;
+        }
+    }
+
+    /**
+     * Buffer index of the first byte not consumed by {@link #nextRecord(boolean)}.
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Buffer index of the first byte of the current record.
+     */
+    public int recordStart() {
+        return recordStart;
+    }
+
+    /**
+     * Copies the raw bytes of the current record, terminated by a single line feed.
+     */
+    public byte[] recordBytes() {
+        int end = position;
+        while (end > recordStart && isLineBreak(buffer.get(end - 1))) {
+            end--;
+        }
+        byte[] bytes = new byte[end - recordStart + 1];
+        buffer.get(recordStart, bytes, 0, end - recordStart);
+        bytes[bytes.length - 1] = '\n';
+        return bytes;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    public boolean isEmpty(int field) {
+        return ends[field] == starts[field];
+    }
+
+    public String field(int field) {
+        checkField(field);
+        int length = ends[field] - starts[field];
+        if (length == 0) {
+            return "";
+        }
+        if (!escaped[field] && buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + starts[field], length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = copy(field);
+        int count = length;
+        if (escaped[field]) {
+            count = 0;
+            for (int index = 0; index < length; index++) {
+                bytes[count++] = bytes[index];
+                if (bytes[index] == QUOTE) {
+                    index++;
+                }
+            }
+        }
+        return new String(bytes, 0, count, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares a field with the given UTF-8 bytes without decoding it.
+     */
+    public boolean fieldEquals(int field, byte[] value) {
+        checkField(field);
+        if (escaped[field]) {
+            return field(field).equals(new String(value, StandardCharsets.UTF_8));
+        }
+        int start = starts[field];
+        if (ends[field] - start != value.length) {
+            return false;
+        }
+        for (int index = 0; index < value.length; index++) {
+            if (buffer.get(start + index) != value[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash of the field's UTF-8 bytes, matching {@link StringDictionary}.
+     */
+    public int fieldHash(int field) {
+        checkField(field);
+        if (escaped[field]) {
+            return StringDictionary.hash(field(field).getBytes(StandardCharsets.UTF_8));
+        }
+        int hash = 1;
+        for (int index = starts[field]; index < ends[field]; index++) {
+            hash = 31 * hash + buffer.get(index);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    public long fieldAsLong(int field) {
+        checkField(field);
+        int index = starts[field];
+        int end = ends[field];
+        boolean negative = index < end && buffer.get(index) == '-';
+        if (negative || (index < end && buffer.get(index) == '+')) {
+            index++;
+        }
+        if (index >= end) {
+            throw new NumberFormatException("For input string: \"" + field(field) + "\"");
+        }
+        long result = 0;
+        for (; index < end; index++) {
+            int digit = buffer.get(index) - '0';
+            if (digit < 0 || digit > 9 || result > (Long.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("For input string: \"" + field(field) + "\"");
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    public int fieldAsInt(int field) {
+        long value = fieldAsLong(field);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("For input string: \"" + field(field) + "\"");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses whole numbers in place; anything with a fraction or exponent goes through
+     * {@link Float#parseFloat(String)} so rounding stays exact.
+     */
+    public float fieldAsFloat(int field) {
+        checkField(field);
+        for (int index = starts[field]; index < ends[field]; index++) {
+            byte value = buffer.get(index);
+            if ((value < '0' || value > '9') && value != '-' && value != '+') {
+                return Float.parseFloat(field(field));
+            }
+        }
+        return (float) fieldAsLong(field);
+    }
+
+    /**
+     * Parses an ISO {@code yyyy-MM-dd} field into {@code yyyyMMdd} digits without going through
+     * {@code DateTimeFormatter}; an empty field yields 0.
+     */
+    public int fieldAsPackedDate(int field) {
+        checkField(field);
+        int start = starts[field];
+        int length = ends[field] - start;
+        if (length == 0) {
+            return 0;
+        }
+        if (length != 10 || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-') {
+            throw new DateTimeException("Text '" + field(field) + "' is not an ISO date");
+        }
+        int year = digits(start, 4);
+        int month = digits(start + 5, 2);
+        int day = digits(start + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw new DateTimeException("Text '" + field(field) + "' is not a valid date");
+        }
+        return year * 10000 + month * 100 + day;
+    }
+
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int index = start; index < start + count; index++) {
+            int digit = buffer.get(index) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private byte[] copy(int field) {
+        int length = ends[field] - starts[field];
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(starts[field], scratch, 0, length);
+        return scratch;
+    }
+
+    private void addField(int start, int end, boolean doubled) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+            escaped = Arrays.copyOf(escaped, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        escaped[fieldCount] = doubled;
+        fieldCount++;
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + field + " of a record with " + fieldCount + " fields");
+        }
+    }
+
+    private static boolean isBlank(byte value) {
+        return value == ' ' || value == '\t';
+    }
+
+    private static boolean isLineBreak(byte value) {
+        return value == '\n' || value == '\r';
+    }
+}
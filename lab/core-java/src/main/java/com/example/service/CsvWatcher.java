@@ -0,0 +1,278 @@
+package com.example.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Tails a CSV file that is appended to by another process. Only complete records past the saved
+ * byte offset are parsed and pushed to listeners; the offset is persisted to {@code <file>.offset}
+ * so a restarted watcher resumes where it stopped. When the file shrinks or is replaced by a new
+ * file, listeners are reset and the whole file is delivered again.
+ *
+ * <p>A listener that throws only misses that batch; the others still get it and ingestion goes
+ * on. If the background watch cannot read the file, every listener is told through
+ * {@link Listener#onError(Exception)} and the read is retried on the next change or poll
+ * interval; the watch only ends when the watcher is closed.
+ */
+public class CsvWatcher<T> implements Closeable {
+
+    public interface Listener<T> {
+
+        void onAppend(List<T> records);
+
+        /**
+         * The file was truncated or rotated; records are delivered again from the start.
+         */
+        default void onReset() {
+        }
+
+        /**
+         * This listener threw while handling a batch or a reset, or the background watch could not
+         * read the file and will retry. Called on the thread that was delivering.
+         */
+        default void onError(Exception error) {
+        }
+    }
+
+    private static final int BATCH_SIZE = 1000;
+    private static final long POLL_INTERVAL_SECONDS = 5;
+
+    private final Path csvFile;
+    private final Path offsetFile;
+    private final Function<CsvTokenizer, T> mapper;
+    private final List<Listener<T>> listeners = new CopyOnWriteArrayList<>();
+    private WatchService watchService;
+    private Thread thread;
+    private String fileKey;
+    private long offset;
+    private volatile Exception failure;
+
+    public CsvWatcher(Path csvFile, Function<CsvTokenizer, T> mapper) throws IOException {
+        this.csvFile = csvFile.toAbsolutePath();
+        this.offsetFile = this.csvFile.resolveSibling(csvFile.getFileName() + ".offset");
+        this.mapper = mapper;
+        loadOffset();
+    }
+
+    public CsvWatcher<T> subscribe(Listener<T> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    /**
+     * Delivers everything appended since the saved offset, then watches the directory of the
+     * file on a daemon thread. Changes are also polled periodically in case events are missed.
+     */
+    public synchronized CsvWatcher<T> start() throws IOException {
+        if (thread != null) {
+            return this;
+        }
+        watchService = csvFile.getFileSystem().newWatchService();
+        csvFile.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        poll();
+        thread = new Thread(this::watch, "csv-watcher-" + csvFile.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Reads and delivers the records appended since the last call. Does nothing while the file is
+     * missing, for instance between a rotation renaming it away and the new file being created.
+     */
+    public synchronized void poll() throws IOException {
+        BasicFileAttributes attributes;
+        FileChannel channel;
+        try {
+            attributes = Files.readAttributes(csvFile, BasicFileAttributes.class);
+            channel = FileChannel.open(csvFile, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        try (channel) {
+            read(channel, attributes);
+        }
+    }
+
+    private void read(FileChannel channel, BasicFileAttributes attributes) throws IOException {
+        String currentKey = String.valueOf(attributes.fileKey());
+        boolean reset = attributes.size() < offset || (fileKey != null && !fileKey.equals(currentKey));
+        if (reset) {
+            offset = 0;
+            for (Listener<T> listener : listeners) {
+                try {
+                    listener.onReset();
+                } catch (RuntimeException e) {
+                    notifyError(listener, e);
+                }
+            }
+        }
+        fileKey = currentKey;
+        long end = lastRecordEnd(channel, offset, channel.size());
+        if (end <= offset) {
+            if (reset) {
+                saveOffset();
+            }
+            return;
+        }
+        try (CsvReader reader = CsvReader.open(channel, offset, end)) {
+            if (offset == 0) {
+                reader.next();
+            }
+            List<T> batch = new ArrayList<>(BATCH_SIZE);
+            while (reader.next()) {
+                batch.add(mapper.apply(reader.record()));
+                if (batch.size() == BATCH_SIZE) {
+                    deliver(batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        }
+        offset = end;
+        saveOffset();
+    }
+
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Whether the background watch started by {@link #start()} is still delivering.
+     */
+    public synchronized boolean isWatching() {
+        return thread != null && thread.isAlive();
+    }
+
+    /**
+     * Why the last read of the background watch failed, or null once a read succeeds again.
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+        thread = null;
+    }
+
+    private void watch() {
+        WatchService service = watchService;
+        try {
+            while (true) {
+                WatchKey key = service.poll(POLL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+                boolean changed = key == null || failure != null;
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        Object context = event.context();
+                        changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || Objects.equals(context, csvFile.getFileName());
+                    }
+                    key.reset();
+                }
+                if (changed) {
+                    pollOrReport();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // closed by close()
+        }
+    }
+
+    /**
+     * A failed read leaves the offset where it was, so the next attempt delivers the same records.
+     */
+    private void pollOrReport() {
+        try {
+            poll();
+            failure = null;
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+            listeners.forEach(listener -> notifyError(listener, e));
+        }
+    }
+
+    private void deliver(List<T> batch) {
+        for (Listener<T> listener : listeners) {
+            try {
+                listener.onAppend(batch);
+            } catch (RuntimeException e) {
+                notifyError(listener, e);
+            }
+        }
+    }
+
+    private static void notifyError(Listener<?> listener, Exception error) {
+        try {
+            listener.onError(error);
+        } catch (RuntimeException e) {
+            // The listener is failing already; throwing again would stop the others
+            error.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Offset just past the last line feed in {@code [from, size)}, so a record that is still
+     * being written is left for the next poll.
+     */
+    private static long lastRecordEnd(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long end = size;
+        while (end > from) {
+            int length = (int) Math.min(buffer.capacity(), end - from);
+            buffer.clear().limit(length);
+            channel.read(buffer, end - length);
+            for (int index = length - 1; index >= 0; index--) {
+                if (buffer.get(index) == '\n') {
+                    return end - length + index + 1;
+                }
+            }
+            end -= length;
+        }
+        return from;
+    }
+
+    private void loadOffset() throws IOException {
+        if (!Files.exists(offsetFile)) {
+            return;
+        }
+        String[] state = Files.readString(offsetFile, StandardCharsets.UTF_8).split("\n");
+        if (state.length == 2) {
+            fileKey = state[0];
+            offset = Long.parseLong(state[1].trim());
+        }
+    }
+
+    private void saveOffset() throws IOException {
+        Path tempFile = offsetFile.resolveSibling(offsetFile.getFileName() + ".tmp");
+        Files.writeString(tempFile, fileKey + "\n" + offset, StandardCharsets.UTF_8);
+        Files.move(tempFile, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
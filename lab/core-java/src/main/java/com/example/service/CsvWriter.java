@@ -0,0 +1,203 @@
+package com.example.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes CSV records in the layout {@link CsvReader} reads: fields separated by {@code ", "}
+ * and quoted only when they contain a separator, quote or line break, or start or end with
+ * whitespace that the reader would otherwise trim. Records are encoded into one large reusable
+ * buffer that is handed to the channel only when full.
+ */
+public class CsvWriter implements Closeable {
+
+    private static final byte[] SEPARATOR = {',', ' '};
+    private static final byte QUOTE = '"';
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private boolean firstField = true;
+
+    public CsvWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens {@code file} for writing, replacing it; with {@code gzip} the output is compressed.
+     */
+    public static CsvWriter open(Path file, boolean gzip) throws IOException {
+        if (!gzip) {
+            return new CsvWriter(FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+        }
+        OutputStream out = new GZIPOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+        return new CsvWriter(Channels.newChannel(out));
+    }
+
+    public CsvWriter field(String value) throws IOException {
+        separate();
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        if (!needsQuotes(value)) {
+            putText(value);
+            return this;
+        }
+        ensure(1);
+        buffer.put(QUOTE);
+        putText(value.replace("\"", "\"\""));
+        ensure(1);
+        buffer.put(QUOTE);
+        return this;
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        separate();
+        putText(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes whole numbers without a fraction, as they appear in staff.csv.
+     */
+    public CsvWriter field(Float value) throws IOException {
+        if (value == null) {
+            return field((String) null);
+        }
+        float salary = value;
+        if (salary == Math.rint(salary) && Math.abs(salary) < 1e15f) {
+            return field((long) salary);
+        }
+        separate();
+        putText(Float.toString(salary));
+        return this;
+    }
+
+    /**
+     * Writes {@code yyyyMMdd} digits as an ISO {@code yyyy-MM-dd} date; 0 writes an empty field.
+     */
+    public CsvWriter packedDate(int packedDate) throws IOException {
+        separate();
+        if (packedDate == 0) {
+            return this;
+        }
+        ensure(10);
+        putDigits(packedDate / 10000, 4);
+        buffer.put((byte) '-');
+        putDigits(packedDate / 100 % 100, 2);
+        buffer.put((byte) '-');
+        putDigits(packedDate % 100, 2);
+        return this;
+    }
+
+    public CsvWriter endRecord() throws IOException {
+        ensure(1);
+        buffer.put((byte) '\n');
+        firstField = true;
+        return this;
+    }
+
+    public void writeRecord(String... values) throws IOException {
+        for (String value : values) {
+            field(value);
+        }
+        endRecord();
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void separate() throws IOException {
+        if (!firstField) {
+            ensure(SEPARATOR.length);
+            buffer.put(SEPARATOR);
+        }
+        firstField = false;
+    }
+
+    private void putText(String value) throws IOException {
+        int length = value.length();
+        ensure(length);
+        if (buffer.remaining() < length) {
+            putBytes(value.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        for (int index = 0; index < length; index++) {
+            char character = value.charAt(index);
+            if (character >= 0x80) {
+                // non-ASCII: let the encoder handle the rest of the value
+                byte[] bytes = value.substring(index).getBytes(StandardCharsets.UTF_8);
+                putBytes(bytes);
+                return;
+            }
+            buffer.put((byte) character);
+        }
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void putDigits(int value, int count) {
+        int position = buffer.position();
+        for (int index = count - 1; index >= 0; index--) {
+            buffer.put(position + index, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(position + count);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private static boolean needsQuotes(String value) {
+        char first = value.charAt(0);
+        char last = value.charAt(value.length() - 1);
+        if (first == ' ' || first == '\t' || last == ' ' || last == '\t') {
+            return true;
+        }
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            if (character == ',' || character == '"' || character == '\n' || character == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
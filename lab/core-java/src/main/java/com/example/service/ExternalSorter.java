@@ -0,0 +1,166 @@
+package com.example.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sorts the records of a CSV file by their first column in bounded memory. Records are collected
+ * into runs of at most {@code runBytes}, each run is sorted and spilled to a temporary file, and
+ * the runs are merged lazily while the returned stream is consumed.
+ */
+public class ExternalSorter {
+
+    /**
+     * Orders keys by length and then lexically, which is numeric order for plain integer ids.
+     */
+    public static final Comparator<String> KEY_ORDER =
+            Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    private static final int RECORD_OVERHEAD = 64;
+
+    private final long runBytes;
+
+    public ExternalSorter(long runBytes) {
+        this.runBytes = runBytes;
+    }
+
+    /**
+     * Returns the records of {@code csvFile} after its header in {@link #KEY_ORDER}. Closing the
+     * stream deletes the temporary run files.
+     */
+    public <T> Stream<T> sort(Path csvFile, Function<CsvTokenizer, T> mapper) throws IOException {
+        List<Path> runs = writeRuns(csvFile);
+        PriorityQueue<Run> queue = new PriorityQueue<>(Math.max(1, runs.size()),
+                Comparator.comparing((Run run) -> run.key, KEY_ORDER));
+        List<Run> opened = new ArrayList<>();
+        try {
+            for (Path path : runs) {
+                Run run = new Run(CsvReader.open(path));
+                opened.add(run);
+                if (run.advance()) {
+                    queue.add(run);
+                }
+            }
+        } catch (IOException e) {
+            close(opened, runs);
+            throw e;
+        }
+        Spliterator<T> merged = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                Run run = queue.poll();
+                if (run == null) {
+                    return false;
+                }
+                action.accept(mapper.apply(run.reader.record()));
+                try {
+                    if (run.advance()) {
+                        queue.add(run);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            }
+        };
+        return StreamSupport.stream(merged, false).onClose(() -> close(opened, runs));
+    }
+
+    private List<Path> writeRuns(Path csvFile) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        try (CsvReader reader = CsvReader.open(csvFile)) {
+            if (!reader.next()) {
+                return runs;
+            }
+            List<String> keys = new ArrayList<>();
+            List<byte[]> records = new ArrayList<>();
+            long bytes = 0;
+            while (reader.next()) {
+                CsvTokenizer record = reader.record();
+                byte[] raw = record.recordBytes();
+                keys.add(record.field(0));
+                records.add(raw);
+                bytes += raw.length + RECORD_OVERHEAD;
+                if (bytes >= runBytes) {
+                    runs.add(writeRun(keys, records));
+                    keys.clear();
+                    records.clear();
+                    bytes = 0;
+                }
+            }
+            if (!keys.isEmpty()) {
+                runs.add(writeRun(keys, records));
+            }
+        } catch (IOException | RuntimeException e) {
+            close(List.of(), runs);
+            throw e;
+        }
+        return runs;
+    }
+
+    private static Path writeRun(List<String> keys, List<byte[]> records) throws IOException {
+        Integer[] order = new Integer[keys.size()];
+        for (int index = 0; index < order.length; index++) {
+            order[index] = index;
+        }
+        Arrays.sort(order, Comparator.comparing(keys::get, KEY_ORDER));
+        Path run = Files.createTempFile("csv-run-", ".csv");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(run), 64 * 1024)) {
+            for (Integer index : order) {
+                out.write(records.get(index));
+            }
+        }
+        return run;
+    }
+
+    private static void close(List<Run> opened, List<Path> runs) {
+        for (Run run : opened) {
+            try {
+                run.reader.close();
+            } catch (IOException ignored) {
+                // the run file is deleted below regardless
+            }
+        }
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException ignored) {
+                // temporary files are left to the OS
+            }
+        }
+    }
+
+    private static class Run {
+
+        private final CsvReader reader;
+        private String key;
+
+        Run(CsvReader reader) {
+            this.reader = reader;
+        }
+
+        boolean advance() throws IOException {
+            if (!reader.next()) {
+                return false;
+            }
+            key = reader.record().field(0);
+            return true;
+        }
+    }
+}
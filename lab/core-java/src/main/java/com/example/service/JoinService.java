@@ -0,0 +1,153 @@
+package com.example.service;
+
+import com.example.model.Customer;
+import com.example.model.Staff;
+import com.example.model.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Joins staff.csv and customer.csv to user.csv on the user id and returns fully populated
+ * {@link Staff} and {@link Customer} records. A hash join is used when either side is estimated
+ * to fit in the memory budget, otherwise both sides are sorted externally and merge-joined.
+ */
+public class JoinService {
+
+    /**
+     * Rough heap bytes needed per byte of CSV once records are materialized.
+     */
+    private static final long HEAP_BYTES_PER_FILE_BYTE = 4;
+
+    private final CsvService csvService;
+    private final long memoryBudget;
+
+    public JoinService(CsvService csvService) {
+        this(csvService, Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    public JoinService(CsvService csvService, long memoryBudget) {
+        this.csvService = csvService;
+        this.memoryBudget = memoryBudget;
+    }
+
+    public Stream<Staff> streamStaff() throws IOException {
+        return join(CsvService.STAFF_CSV, csvService::toStaff);
+    }
+
+    public Stream<Customer> streamCustomers() throws IOException {
+        return join(CsvService.CUSTOMER_CSV, csvService::toCustomer);
+    }
+
+    private <T extends User> Stream<T> join(String fileName, Function<CsvTokenizer, T> mapper) throws IOException {
+        long userBytes = Files.size(csvService.resolve(CsvService.USER_CSV)) * HEAP_BYTES_PER_FILE_BYTE;
+        long detailBytes = Files.size(csvService.resolve(fileName)) * HEAP_BYTES_PER_FILE_BYTE;
+        if (Math.min(userBytes, detailBytes) <= memoryBudget) {
+            return detailBytes <= userBytes ? hashJoinOnDetails(fileName, mapper) : hashJoinOnUsers(fileName, mapper);
+        }
+        return sortMergeJoin(fileName, mapper);
+    }
+
+    /**
+     * Builds a table of the detail rows and probes it while streaming user.csv.
+     */
+    private <T extends User> Stream<T> hashJoinOnDetails(String fileName, Function<CsvTokenizer, T> mapper)
+            throws IOException {
+        Map<String, List<T>> details = new HashMap<>();
+        try (Stream<T> rows = csvService.stream(fileName, mapper)) {
+            rows.forEach(detail -> details.computeIfAbsent(detail.getId(), id -> new ArrayList<>(1)).add(detail));
+        }
+        return csvService.streamUsers().flatMap(user -> {
+            List<T> matches = details.get(user.getId());
+            if (matches == null) {
+                return Stream.empty();
+            }
+            matches.forEach(detail -> copyUser(user, detail));
+            return matches.stream();
+        });
+    }
+
+    /**
+     * Builds a table of user.csv and probes it while streaming the detail rows.
+     */
+    private <T extends User> Stream<T> hashJoinOnUsers(String fileName, Function<CsvTokenizer, T> mapper)
+            throws IOException {
+        Map<String, User> users = new HashMap<>();
+        try (Stream<User> rows = csvService.streamUsers()) {
+            rows.forEach(user -> users.put(user.getId(), user));
+        }
+        return csvService.stream(fileName, mapper).filter(detail -> {
+            User user = users.get(detail.getId());
+            if (user == null) {
+                return false;
+            }
+            copyUser(user, detail);
+            return true;
+        });
+    }
+
+    /**
+     * Sorts both files by user id in bounded memory and walks them in step.
+     */
+    private <T extends User> Stream<T> sortMergeJoin(String fileName, Function<CsvTokenizer, T> mapper)
+            throws IOException {
+        ExternalSorter sorter = new ExternalSorter(memoryBudget / HEAP_BYTES_PER_FILE_BYTE);
+        Stream<User> users = sorter.sort(csvService.resolve(CsvService.USER_CSV), csvService::toUser);
+        Stream<T> details;
+        try {
+            details = sorter.sort(csvService.resolve(fileName), mapper);
+        } catch (IOException | RuntimeException e) {
+            users.close();
+            throw e;
+        }
+        Iterator<User> userIterator = users.iterator();
+        Iterator<T> detailIterator = details.iterator();
+        Spliterator<T> joined = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private User user;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                while (detailIterator.hasNext()) {
+                    T detail = detailIterator.next();
+                    while ((user == null || ExternalSorter.KEY_ORDER.compare(user.getId(), detail.getId()) < 0)
+                            && userIterator.hasNext()) {
+                        user = userIterator.next();
+                    }
+                    if (user != null && user.getId().equals(detail.getId())) {
+                        copyUser(user, detail);
+                        action.accept(detail);
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+        return StreamSupport.stream(joined, false).onClose(() -> {
+            try {
+                users.close();
+            } finally {
+                details.close();
+            }
+        });
+    }
+
+    private static void copyUser(User from, User to) {
+        to.setFirstName(from.getFirstName());
+        to.setLastName(from.getLastName());
+        to.setPackedDob(from.getPackedDob());
+        to.setUserName(from.getUserName());
+        to.setPassword(from.getPassword());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.service;
+
+import com.example.model.SalaryStats;
+import com.example.model.StaffColumns;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Salary aggregations over {@link StaffColumns}. Every pass is a tight loop over the primitive
+ * columns, so no {@code Staff} objects or boxed salaries are created. Staff without a salary
+ * ({@code NaN}) are left out of every aggregate.
+ */
+public class StaffAnalytics {
+
+    public SalaryStats salaryTotals(StaffColumns columns) {
+        float[] salaries = columns.getSalaries();
+        float[] sorted = new float[salaries.length];
+        int count = 0;
+        double sum = 0;
+        for (int row = 0; row < salaries.length; row++) {
+            if (!Float.isNaN(salaries[row])) {
+                sorted[count++] = salaries[row];
+                sum += salaries[row];
+            }
+        }
+        sorted = Arrays.copyOf(sorted, count);
+        Arrays.sort(sorted);
+        return new SalaryStats(sum, sorted);
+    }
+
+    /**
+     * Groups salaries by department, keyed in department code order. Every department of the
+     * columns' dictionary has an entry, empty when none of its staff has a salary.
+     */
+    public Map<String, SalaryStats> salaryByDepartment(StaffColumns columns) {
+        String[] departments = columns.getDepartments();
+        int[] codes = columns.getDepartmentCodes();
+        float[] salaries = columns.getSalaries();
+        int[] counts = new int[departments.length];
+        double[] sums = new double[departments.length];
+        for (int row = 0; row < salaries.length; row++) {
+            if (!Float.isNaN(salaries[row])) {
+                counts[codes[row]]++;
+                sums[codes[row]] += salaries[row];
+            }
+        }
+
+        // counting sort by department so each group is one contiguous, sortable slice
+        int[] offsets = new int[departments.length + 1];
+        for (int code = 0; code < departments.length; code++) {
+            offsets[code + 1] = offsets[code] + counts[code];
+        }
+        int[] cursors = Arrays.copyOf(offsets, departments.length);
+        float[] grouped = new float[offsets[departments.length]];
+        for (int row = 0; row < salaries.length; row++) {
+            if (!Float.isNaN(salaries[row])) {
+                grouped[cursors[codes[row]]++] = salaries[row];
+            }
+        }
+
+        Map<String, SalaryStats> result = new LinkedHashMap<>();
+        for (int code = 0; code < departments.length; code++) {
+            Arrays.sort(grouped, offsets[code], offsets[code + 1]);
+            result.put(departments[code],
+                    new SalaryStats(sums[code], Arrays.copyOfRange(grouped, offsets[code], offsets[code + 1])));
+        }
+        return result;
+    }
+}
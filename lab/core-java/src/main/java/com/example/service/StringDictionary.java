@@ -0,0 +1,191 @@
+package com.example.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Dictionary of the distinct values of a low-cardinality column. Each value is kept as one
+ * canonical String with a dense int code, and lookups straight from tokenized bytes only
+ * decode a String the first time a value is seen. Reads are lock-free; additions are
+ * synchronized and stop once {@link #MAX_SIZE} values are known, after which unseen values
+ * are returned uncached.
+ *
+ * <p>An addition stores the value under its code before the entry can be found in the table,
+ * and slots are only ever filled, never moved, so a reader that finds a code can always
+ * resolve it. Grown arrays are filled completely before they replace the current ones.
+ */
+public class StringDictionary {
+
+    public static final int MAX_SIZE = 1 << 16;
+
+    static final int INITIAL_CAPACITY = 64;
+
+    private volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    private volatile AtomicReferenceArray<String> values = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    private int size;
+
+    /**
+     * Canonical instance of the given field of the current record.
+     */
+    public String intern(CsvTokenizer record, int field) {
+        Entry entry = find(table, record, field);
+        if (entry != null) {
+            return entry.value;
+        }
+        return add(record.field(field)).value;
+    }
+
+    /**
+     * Canonical instance of {@code value}; null stays null.
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        Entry entry = find(table, bytes, hash(bytes));
+        return entry != null ? entry.value : add(value).value;
+    }
+
+    /**
+     * Code of the given field of the current record, adding it when unseen; -1 when the
+     * dictionary is full.
+     */
+    public int code(CsvTokenizer record, int field) {
+        Entry entry = find(table, record, field);
+        return entry != null ? entry.code : add(record.field(field)).code;
+    }
+
+    /**
+     * Code of {@code value}, adding it when unseen; -1 when the dictionary is full.
+     */
+    public int code(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        Entry entry = find(table, bytes, hash(bytes));
+        return entry != null ? entry.code : add(value).code;
+    }
+
+    public String value(int code) {
+        return values.get(code);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * The values known so far, indexed by code.
+     */
+    public synchronized String[] values() {
+        String[] snapshot = new String[size];
+        for (int code = 0; code < size; code++) {
+            snapshot[code] = values.get(code);
+        }
+        return snapshot;
+    }
+
+    private synchronized Entry add(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes);
+        Entry existing = find(table, bytes, hash);
+        if (existing != null) {
+            return existing;
+        }
+        if (size == MAX_SIZE) {
+            return new Entry(bytes, hash, value, -1);
+        }
+        Entry entry = new Entry(bytes, hash, value, size);
+        AtomicReferenceArray<String> currentValues = values;
+        if (size == currentValues.length()) {
+            AtomicReferenceArray<String> larger = new AtomicReferenceArray<>(size * 2);
+            for (int code = 0; code < size; code++) {
+                larger.set(code, currentValues.get(code));
+            }
+            larger.set(size, value);
+            values = larger;
+        } else {
+            currentValues.set(size, value);
+        }
+        AtomicReferenceArray<Entry> current = table;
+        if ((size + 1) * 2 > current.length()) {
+            AtomicReferenceArray<Entry> larger = rehash(current);
+            insert(larger, entry);
+            table = larger;
+        } else {
+            // Fills an empty slot: a reader probing past it sees either nothing or the whole entry
+            insert(current, entry);
+        }
+        size++;
+        return entry;
+    }
+
+    private static AtomicReferenceArray<Entry> rehash(AtomicReferenceArray<Entry> current) {
+        AtomicReferenceArray<Entry> larger = new AtomicReferenceArray<>(current.length() * 2);
+        for (int slot = 0; slot < current.length(); slot++) {
+            Entry entry = current.get(slot);
+            if (entry != null) {
+                insert(larger, entry);
+            }
+        }
+        return larger;
+    }
+
+    private static void insert(AtomicReferenceArray<Entry> table, Entry entry) {
+        int mask = table.length() - 1;
+        int slot = entry.hash & mask;
+        while (table.get(slot) != null) {
+            slot = (slot + 1) & mask;
+        }
+        table.set(slot, entry);
+    }
+
+    private static Entry find(AtomicReferenceArray<Entry> table, CsvTokenizer record, int field) {
+        int mask = table.length() - 1;
+        int hash = record.fieldHash(field);
+        Entry entry;
+        for (int slot = hash & mask; (entry = table.get(slot)) != null; slot = (slot + 1) & mask) {
+            if (entry.hash == hash && record.fieldEquals(field, entry.bytes)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static Entry find(AtomicReferenceArray<Entry> table, byte[] bytes, int hash) {
+        int mask = table.length() - 1;
+        Entry entry;
+        for (int slot = hash & mask; (entry = table.get(slot)) != null; slot = (slot + 1) & mask) {
+            if (entry.hash == hash && Arrays.equals(entry.bytes, bytes)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Same hash as {@link CsvTokenizer#fieldHash(int)} over the UTF-8 bytes of a value.
+     */
+    static int hash(byte[] bytes) {
+        int hash = 1;
+        for (byte value : bytes) {
+            hash = 31 * hash + value;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static class Entry {
+
+        private final byte[] bytes;
+        private final int hash;
+        private final String value;
+        private final int code;
+
+        Entry(byte[] bytes, int hash, String value, int code) {
+            this.bytes = bytes;
+            this.hash = hash;
+            this.value = value;
+            this.code = code;
+        }
+    }
+}
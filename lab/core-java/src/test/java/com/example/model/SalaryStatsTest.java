@@ -0,0 +1,57 @@
+package com.example.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class SalaryStatsTest {
+
+    @Test
+    void describesASingleSalary() {
+        SalaryStats stats = new SalaryStats(1500, new float[] { 1500f });
+        assertEquals(1, stats.getCount());
+        assertEquals(1500, stats.getAverage());
+        assertEquals(1500f, stats.getMin());
+        assertEquals(1500f, stats.getMax());
+        for (double percentile : new double[] { 0, 1, 50, 99.9, 100 }) {
+            assertEquals(1500, stats.getPercentile(percentile), "p" + percentile);
+        }
+    }
+
+    @Test
+    void interpolatesBetweenTheMiddleSalariesOfAnEvenCount() {
+        SalaryStats stats = new SalaryStats(10, new float[] { 1f, 2f, 3f, 4f });
+        assertEquals(2.5, stats.getPercentile(50));
+        assertEquals(1.75, stats.getPercentile(25));
+        assertEquals(3.25, stats.getPercentile(75));
+        assertEquals(2.5, stats.getAverage());
+    }
+
+    @Test
+    void readsTheExtremesAtP0AndP100() {
+        SalaryStats stats = new SalaryStats(150, new float[] { 10f, 20f, 30f, 40f, 50f });
+        assertEquals(10, stats.getPercentile(0));
+        assertEquals(50, stats.getPercentile(100));
+        assertEquals(30, stats.getPercentile(50));
+        assertEquals(46, stats.getPercentile(90), 1e-9);
+    }
+
+    @Test
+    void hasNoValuesForAnEmptyGroup() {
+        SalaryStats stats = new SalaryStats(0, new float[0]);
+        assertEquals(0, stats.getCount());
+        assertEquals(0, stats.getSum());
+        assertEquals(Double.NaN, stats.getAverage());
+        assertEquals(Float.NaN, stats.getMin());
+        assertEquals(Float.NaN, stats.getMax());
+        assertEquals(Double.NaN, stats.getPercentile(50));
+    }
+
+    @Test
+    void rejectsPercentilesOutOfRange() {
+        SalaryStats stats = new SalaryStats(1, new float[] { 1f });
+        assertThrows(IllegalArgumentException.class, () -> stats.getPercentile(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> stats.getPercentile(100.1));
+    }
+}
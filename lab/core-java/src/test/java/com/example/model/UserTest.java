@@ -0,0 +1,50 @@
+package com.example.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+public class UserTest {
+
+    @Test
+    void createsTheDateOfBirthFromPackedDigits() {
+        User user = new User();
+        user.setPackedDob(20240229);
+        assertEquals(LocalDate.of(2024, 2, 29), user.getDob());
+        assertEquals(20240229, user.getPackedDob());
+    }
+
+    @Test
+    void packsADateOfBirthSetAsLocalDate() {
+        User user = new User();
+        user.setDob(LocalDate.of(2000, 2, 29));
+        assertEquals(20000229, user.getPackedDob());
+        assertEquals(LocalDate.of(2000, 2, 29), user.getDob());
+    }
+
+    @Test
+    void keepsTheLastDateOfBirthSet() {
+        User user = new User();
+        user.setDob(LocalDate.of(1990, 1, 15));
+        user.setPackedDob(19851231);
+        assertEquals(LocalDate.of(1985, 12, 31), user.getDob());
+
+        user.setDob(LocalDate.of(1970, 6, 1));
+        assertEquals(19700601, user.getPackedDob());
+    }
+
+    @Test
+    void hasNoDateOfBirthWhenUnknown() {
+        User user = new User();
+        assertNull(user.getDob());
+        assertEquals(0, user.getPackedDob());
+
+        user.setPackedDob(0);
+        assertNull(user.getDob());
+        user.setDob(null);
+        assertEquals(0, user.getPackedDob());
+    }
+}
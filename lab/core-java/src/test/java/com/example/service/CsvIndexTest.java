@@ -0,0 +1,109 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CsvIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void looksUpRecordsByFirstColumn() throws IOException {
+        Path csv = write("1, Ann, Lee, 1990-01-15, ann, a1",
+                "2, Bob, Ray, 1985-06-30, bob, b2",
+                "10, Cy, Fox, 2000-02-29, cy, c3");
+        try (CsvIndex index = CsvIndex.open(csv)) {
+            assertEquals("Ann", index.lookup("1", record -> record.field(1)));
+            assertEquals("Bob", index.lookup("2", record -> record.field(1)));
+            assertEquals("Cy", index.lookup("10", record -> record.field(1)));
+            assertNull(index.lookup("3", record -> record.field(1)));
+        }
+    }
+
+    @Test
+    void keepsAnIndexThatStillMatches() throws IOException {
+        Path csv = write("1, Ann, Lee, 1990-01-15, ann, a1");
+        CsvIndex.open(csv).close();
+        Path indexFile = directory.resolve("user.csv.idx");
+        Object built = Files.readAttributes(indexFile, "fileKey").get("fileKey");
+
+        try (CsvIndex index = CsvIndex.open(csv)) {
+            assertEquals("Ann", index.lookup("1", record -> record.field(1)));
+        }
+        assertEquals(built, Files.readAttributes(indexFile, "fileKey").get("fileKey"));
+    }
+
+    @Test
+    void rebuildsTheIndexWhenRowsAreAppended() throws IOException {
+        Path csv = write("1, Ann, Lee, 1990-01-15, ann, a1");
+        CsvIndex.open(csv).close();
+
+        Files.writeString(csv, "2, Bob, Ray, 1985-06-30, bob, b2\n", StandardOpenOption.APPEND);
+        try (CsvIndex index = CsvIndex.open(csv)) {
+            assertEquals("Ann", index.lookup("1", record -> record.field(1)));
+            assertEquals("Bob", index.lookup("2", record -> record.field(1)));
+        }
+    }
+
+    @Test
+    void rebuildsTheIndexWhenRowsMoveWithinTheSameSize() throws IOException {
+        Path csv = write("1, Ann, Lee, 1990-01-15, ann, a1",
+                "2, Bob, Ray, 1985-06-30, bob, b2");
+        CsvIndex.open(csv).close();
+        FileTime modified = Files.getLastModifiedTime(csv);
+
+        // Same bytes in another order: only the modification time tells the index is stale
+        write("2, Bob, Ray, 1985-06-30, bob, b2",
+                "1, Ann, Lee, 1990-01-15, ann, a1");
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(modified.toMillis() + 10_000));
+        try (CsvIndex index = CsvIndex.open(csv)) {
+            assertEquals("Ann", index.lookup("1", record -> record.field(1)));
+            assertEquals("Bob", index.lookup("2", record -> record.field(1)));
+        }
+    }
+
+    @Test
+    void findsQuotedRecords() throws IOException {
+        Path csv = write("1, \"Ann, Jr\", Lee, 1990-01-15, ann, a1",
+                "2, Bob, Ray, 1985-06-30, bob, b2");
+        try (CsvIndex index = CsvIndex.open(csv)) {
+            assertEquals("Ann, Jr", index.lookup("1", record -> record.field(1)));
+            assertEquals("Bob", index.lookup("2", record -> record.field(1)));
+        }
+    }
+
+    @Test
+    void looksUpAcrossSlotWindows() throws IOException {
+        String[] rows = new String[1000];
+        for (int id = 0; id < rows.length; id++) {
+            rows[id] = id + ", First" + id + ", Last, 1990-01-15, user" + id + ", p";
+        }
+        Path csv = write(rows);
+        for (int pass = 0; pass < 2; pass++) {
+            // 2048 slots in windows of 64: every window is mapped and probes wrap across them
+            try (CsvIndex index = CsvIndex.open(csv, 64)) {
+                for (int id = 0; id < rows.length; id++) {
+                    assertEquals("First" + id, index.lookup(Integer.toString(id), record -> record.field(1)));
+                }
+                assertNull(index.lookup("1000", record -> record.field(1)));
+            }
+        }
+        assertEquals(32 + 2048 * 12, Files.size(directory.resolve("user.csv.idx")));
+    }
+
+    private Path write(String... rows) throws IOException {
+        Path csv = directory.resolve(CsvService.USER_CSV);
+        Files.writeString(csv, CsvService.USER_HEADER + "\n" + String.join("\n", rows) + "\n");
+        return csv;
+    }
+}
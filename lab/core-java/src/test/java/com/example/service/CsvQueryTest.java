@@ -0,0 +1,125 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.example.model.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CsvQueryTest {
+
+    @TempDir
+    Path directory;
+
+    private Path people;
+
+    @BeforeEach
+    void writePeople() throws IOException {
+        people = Files.writeString(directory.resolve("people.csv"), "id, name, age, city\n"
+                + "1, Ann, 34, Oslo\n"
+                + "2, \"Lee, Bo\", 27, Paris\n"
+                + "3, Cy, , Oslo\n"
+                + "4, Di, 41, \n"
+                + "5, Ed, 19, \"New York\"\n"
+                + "6, Flo\n");
+    }
+
+    @Test
+    void keepsRecordsEqualToAValue() throws IOException {
+        assertEquals(List.of("1", "3"), ids(query().where("city", "Oslo")));
+        assertEquals(2, query().where("city", "Oslo").count());
+        assertEquals(List.of("2"), ids(query().where("name", "Lee, Bo")));
+        assertEquals(List.of("5"), ids(query().where("city", "New York")));
+    }
+
+    @Test
+    void keepsRecordsInASetOfValues() throws IOException {
+        assertEquals(List.of("2", "5"), ids(query().whereIn("city", "New York", "Paris")));
+        assertEquals(2, query().whereIn("city", "New York", "Paris").count());
+    }
+
+    @Test
+    void keepsRecordsInARange() throws IOException {
+        assertEquals(List.of("1", "2"), ids(query().whereBetween("age", 20, 40)));
+        assertEquals(List.of("1", "2", "4", "5"), ids(query().whereBetween("age", 19, 41)));
+        assertEquals(4, query().whereBetween("age", Long.MIN_VALUE, Long.MAX_VALUE).count());
+    }
+
+    @Test
+    void requiresEveryFilterToMatch() throws IOException {
+        CsvQuery<String> query = query().where("city", "Oslo").whereBetween("age", 30, 50);
+        assertEquals(List.of("1"), ids(query));
+        assertEquals(1, query.count());
+    }
+
+    @Test
+    void matchesEmptyButNotMissingFields() throws IOException {
+        assertEquals(List.of("4"), ids(query().where("city", "")));
+        assertEquals(List.of("3"), ids(query().where("age", "")));
+        assertEquals(1, query().where("city", "").count());
+    }
+
+    @Test
+    void returnsNothingWithoutAMatch() throws IOException {
+        assertEquals(List.of(), ids(query().where("city", "Rome")));
+        assertEquals(0, query().where("city", "Rome").count());
+        assertEquals(0, query().whereIn("city").count());
+        assertEquals(0, query().whereBetween("age", 50, 60).count());
+        assertEquals(0, query().where("city", "oslo").count());
+    }
+
+    @Test
+    void projectsTheSelectedColumns() throws IOException {
+        try (Stream<String[]> rows = query().whereBetween("id", 4, 6).select("city", "id").stream()) {
+            assertEquals(List.of("[, 4]", "[New York, 5]", "[null, 6]"),
+                    rows.map(Arrays::toString).collect(Collectors.toList()));
+        }
+        try (Stream<String[]> rows = query().where("id", "2").stream()) {
+            assertEquals(List.of("[2, Lee, Bo, 27, Paris]"), rows.map(Arrays::toString).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void rejectsUnknownColumns() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> query().where("country", "NO").count());
+        assertTrue(error.getMessage().contains("Unknown column 'country'"));
+        assertThrows(IllegalArgumentException.class, () -> query().select("country").stream());
+    }
+
+    @Test
+    void buildsOnlyMatchingCustomers() throws IOException {
+        Files.writeString(directory.resolve(CsvService.CUSTOMER_CSV), CsvService.CUSTOMER_HEADER + "\n"
+                + "1, C-1, Europe, EUR\n"
+                + "2, C-2, Asia, JPY\n"
+                + "3, C-3, Europe, \n");
+        CsvQuery<Customer> query = new CsvService(directory).queryCustomers().where("region", "Europe");
+        try (Stream<Customer> customers = query.records()) {
+            assertEquals(List.of("C-1 EUR", "C-3 "), customers
+                    .map(customer -> customer.getCustomerId() + " " + customer.getCurrency())
+                    .collect(Collectors.toList()));
+        }
+        assertEquals(2, query.count());
+    }
+
+    private CsvQuery<String> query() {
+        return new CsvQuery<>(people, record -> record.field(0));
+    }
+
+    private static List<String> ids(CsvQuery<String> query) throws IOException {
+        try (Stream<String> records = query.records()) {
+            return records.collect(Collectors.toList());
+        }
+    }
+}
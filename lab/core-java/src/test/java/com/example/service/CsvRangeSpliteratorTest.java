@@ -0,0 +1,106 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.example.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CsvRangeSpliteratorTest {
+
+    private static final int ROWS = 40_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void parallelStreamKeepsRowOrder() throws IOException {
+        CsvService service = new CsvService(writeUsers(ROWS));
+        try (Stream<User> users = service.parallelStreamUsers()) {
+            assertEquals(ids(ROWS), users.map(User::getId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void getUsersKeepsRowOrderOnlyWhenAsked() throws IOException {
+        CsvService service = new CsvService(writeUsers(ROWS));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<String> ordered = service.getUsers(pool, true).stream().map(User::getId).collect(Collectors.toList());
+            assertEquals(ids(ROWS), ordered);
+            List<String> unordered = service.getUsers(pool, false).stream().map(User::getId).collect(Collectors.toList());
+            assertEquals(new HashSet<>(ids(ROWS)), new HashSet<>(unordered));
+            assertEquals(ROWS, unordered.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void splitsArePrefixesEndingOnRecordBoundaries() throws IOException {
+        Path csv = writeUsers(ROWS).resolve(CsvService.USER_CSV);
+        try (FileChannel file = FileChannel.open(csv, StandardOpenOption.READ)) {
+            long start = CsvReader.alignToRecord(file, 1);
+            List<Spliterator<String>> ranges = new ArrayList<>();
+            split(new CsvRangeSpliterator<>(file, start, file.size(), record -> record.field(0)), ranges);
+            assertTrue(ranges.size() > 4, "only " + ranges.size() + " ranges");
+
+            List<String> ids = new ArrayList<>();
+            ranges.forEach(range -> range.forEachRemaining(ids::add));
+            assertEquals(ids(ROWS), ids);
+        }
+    }
+
+    @Test
+    void doesNotSplitSmallFiles() throws IOException {
+        Path csv = writeUsers(100).resolve(CsvService.USER_CSV);
+        try (FileChannel file = FileChannel.open(csv, StandardOpenOption.READ)) {
+            CsvRangeSpliterator<String> range = new CsvRangeSpliterator<>(file, CsvReader.alignToRecord(file, 1),
+                    file.size(), record -> record.field(0));
+            assertNull(range.trySplit());
+        }
+    }
+
+    /**
+     * Splits until no range splits any more, keeping the ranges in encounter order.
+     */
+    private static void split(Spliterator<String> range, List<Spliterator<String>> ranges) {
+        Spliterator<String> prefix = range.trySplit();
+        if (prefix == null) {
+            ranges.add(range);
+            return;
+        }
+        split(prefix, ranges);
+        split(range, ranges);
+    }
+
+    private Path writeUsers(int rows) throws IOException {
+        StringBuilder csv = new StringBuilder(CsvService.USER_HEADER).append('\n');
+        for (int row = 1; row <= rows; row++) {
+            csv.append(row).append(", First").append(row).append(", Last").append(row)
+                    .append(", 1990-01-15, user").append(row).append(", password").append(row).append('\n');
+        }
+        Files.writeString(directory.resolve(CsvService.USER_CSV), csv);
+        return directory;
+    }
+
+    private static List<String> ids(int rows) {
+        return IntStream.rangeClosed(1, rows).mapToObj(Integer::toString).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.example.model.Customer;
+import com.example.model.Staff;
+import com.example.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CsvSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private Path csv;
+    private Path snapshot;
+    private CsvService service;
+
+    @BeforeEach
+    void writeFiles() throws IOException {
+        csv = directory.resolve(CsvService.USER_CSV);
+        snapshot = directory.resolve(CsvService.USER_CSV + ".snap");
+        Files.writeString(csv, CsvService.USER_HEADER + "\n"
+                + "1, Ann, Lee, 1990-01-15, ann, a1\n"
+                + "2, \"Bob, Jr\", Ray, , bob, b2\n"
+                + "3, Cy, Fox, 2000-02-29, cy, c3\n");
+        Files.writeString(directory.resolve(CsvService.STAFF_CSV), CsvService.STAFF_HEADER + "\n"
+                + "1, Sales, 1000\n"
+                + "3, IT, 2500.5\n");
+        Files.writeString(directory.resolve(CsvService.CUSTOMER_CSV), CsvService.CUSTOMER_HEADER + "\n"
+                + "2, C-2, North, EUR\n");
+        service = new CsvService(directory);
+    }
+
+    @Test
+    void readsTheSameRecordsAsTheCsvFile() throws IOException {
+        assertEquals(parsedUsers(), cachedUsers());
+        assertTrue(Files.exists(snapshot));
+        // and again from the snapshot that is now in place
+        assertEquals(parsedUsers(), cachedUsers());
+    }
+
+    @Test
+    void readsStaffAndCustomersLikeTheCsvFiles() throws IOException {
+        for (int pass = 0; pass < 2; pass++) {
+            try (Stream<Staff> cached = service.cachedStaff(); Stream<Staff> parsed = service.streamStaff()) {
+                assertEquals(parsed.map(CsvSnapshotTest::describe).collect(Collectors.toList()),
+                        cached.map(CsvSnapshotTest::describe).collect(Collectors.toList()));
+            }
+            try (Stream<Customer> cached = service.cachedCustomers();
+                 Stream<Customer> parsed = service.streamCustomers()) {
+                assertEquals(parsed.map(CsvSnapshotTest::describe).collect(Collectors.toList()),
+                        cached.map(CsvSnapshotTest::describe).collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    void keepsTheSnapshotWhileTheCsvFileIsUnchanged() throws IOException {
+        cachedUsers();
+        Object written = fileKey(snapshot);
+        FileTime modified = Files.getLastModifiedTime(snapshot);
+
+        cachedUsers();
+        assertEquals(written, fileKey(snapshot));
+        assertEquals(modified, Files.getLastModifiedTime(snapshot));
+    }
+
+    @Test
+    void keepsTheSnapshotWhenTheCsvFileIsOnlyTouched() throws IOException {
+        cachedUsers();
+        Object written = fileKey(snapshot);
+
+        touch(csv);
+        assertEquals(parsedUsers(), cachedUsers());
+        assertEquals(written, fileKey(snapshot));
+    }
+
+    @Test
+    void rewritesTheSnapshotWhenTheContentChangesInPlace() throws IOException {
+        cachedUsers();
+        Object written = fileKey(snapshot);
+
+        Files.writeString(csv, Files.readString(csv).replace("Ann", "Amy"));
+        touch(csv);
+        List<String> users = cachedUsers();
+        assertEquals(parsedUsers(), users);
+        assertTrue(users.get(0).contains("Amy"), users.get(0));
+        assertNotEquals(written, fileKey(snapshot));
+    }
+
+    @Test
+    void rewritesTheSnapshotWhenRowsAreAppended() throws IOException {
+        cachedUsers();
+        Files.writeString(csv, "4, Di, Poe, 1970-12-31, di, d4\n", StandardOpenOption.APPEND);
+        List<String> users = cachedUsers();
+        assertEquals(4, users.size());
+        assertEquals(parsedUsers(), users);
+    }
+
+    @Test
+    void failsOnASnapshotThatWasCutShort() throws IOException {
+        cachedUsers();
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        IllegalStateException error = assertThrows(IllegalStateException.class, this::cachedUsers);
+        assertTrue(error.getMessage().contains("1 of 3 records missing"), error.getMessage());
+    }
+
+    private List<String> cachedUsers() throws IOException {
+        try (Stream<User> users = service.cachedUsers()) {
+            return users.map(CsvSnapshotTest::describe).collect(Collectors.toList());
+        }
+    }
+
+    private List<String> parsedUsers() throws IOException {
+        try (Stream<User> users = service.streamUsers()) {
+            return users.map(CsvSnapshotTest::describe).collect(Collectors.toList());
+        }
+    }
+
+    private static void touch(Path file) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 10_000));
+    }
+
+    private static Object fileKey(Path file) throws IOException {
+        return Files.readAttributes(file, "fileKey").get("fileKey");
+    }
+
+    private static String describe(User user) {
+        String text = user.getId() + "|" + user.getFirstName() + "|" + user.getLastName() + "|"
+                + user.getPackedDob() + "|" + user.getUserName() + "|" + user.getPassword();
+        if (user instanceof Staff staff) {
+            text += "|" + staff.getDepartment() + "|" + staff.getSalary();
+        } else if (user instanceof Customer customer) {
+            text += "|" + customer.getCustomerId() + "|" + customer.getRegion() + "|" + customer.getCurrency();
+        }
+        return text;
+    }
+}
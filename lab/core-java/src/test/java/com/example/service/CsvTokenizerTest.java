@@ -0,0 +1,168 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class CsvTokenizerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void trimsUnquotedFields() {
+        assertEquals(List.of(List.of("a", "b c", "d"), List.of("", "e", "")),
+                records("a, b c ,\td\n, e,\n"));
+    }
+
+    @Test
+    void keepsSeparatorsQuotesAndLineBreaksInQuotedFields() {
+        assertEquals(List.of(List.of("x, y", "say \"hi\"", "two\nlines", " padded ")),
+                records("\"x, y\", \"say \"\"hi\"\"\", \"two\nlines\", \" padded \"\n"));
+    }
+
+    @Test
+    void endsRecordsOnCrLf() {
+        CsvTokenizer tokenizer = tokenizer("a, b\r\nc, \"d\r\ne\"\r\n");
+        assertTrue(tokenizer.nextRecord(true));
+        assertEquals("b", tokenizer.field(1));
+        assertArrayEquals("a, b\n".getBytes(StandardCharsets.UTF_8), tokenizer.recordBytes());
+        assertTrue(tokenizer.nextRecord(true));
+        assertEquals("d\r\ne", tokenizer.field(1));
+        assertFalse(tokenizer.nextRecord(true));
+    }
+
+    @Test
+    void skipsBlankLines() {
+        assertEquals(List.of(List.of("a"), List.of("b")), records("\n  \r\na\n\n\r\n b \n\n"));
+    }
+
+    @Test
+    void acceptsALastRecordWithoutLineBreakAtEndOfInput() {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), records("a, b\nc, d"));
+    }
+
+    @Test
+    void leavesAnIncompleteRecordForTheNextRefill() {
+        for (String text : new String[] { "a, b", "a, b\r", "a, \"b", "a, \"b\"" }) {
+            CsvTokenizer tokenizer = tokenizer("x\n" + text);
+            assertTrue(tokenizer.nextRecord(false), text);
+            assertFalse(tokenizer.nextRecord(false), text);
+            assertEquals(2, tokenizer.position(), text);
+        }
+    }
+
+    @Test
+    void tokenizesTheSameWhereverTheBufferIsSplit() {
+        String text = "id, \"name, full\", note\r\n1, \"A \"\"B\"\"\", \"x\ny\"\r\n\r\n2,  C , \n3, \"\", z";
+        List<List<String>> expected = records(text);
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for (int split = 0; split <= bytes.length; split++) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            CsvTokenizer tokenizer = new CsvTokenizer(buffer.duplicate().limit(split));
+            List<List<String>> actual = new ArrayList<>();
+            collect(tokenizer, false, actual);
+            tokenizer.reset(buffer.duplicate().position(tokenizer.position()));
+            collect(tokenizer, true, actual);
+            assertEquals(expected, actual, "split at " + split);
+        }
+    }
+
+    @Test
+    void readsRecordsAcrossBufferRefills() throws IOException {
+        // Well past the reader's 64 KiB buffer, with one record larger than the buffer itself
+        List<List<String>> expected = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (int row = 0; row < 5000; row++) {
+            String note = row == 2500 ? "long ".repeat(20_000) + "end" : "line " + row + "\r\nnext, \"q\"";
+            expected.add(List.of(Integer.toString(row), note));
+            text.append(row).append(", \"").append(note.replace("\"", "\"\"")).append("\"\r\n");
+        }
+        Path csv = directory.resolve("rows.csv");
+        Files.writeString(csv, text);
+
+        List<List<String>> actual = new ArrayList<>();
+        try (CsvReader reader = CsvReader.open(csv)) {
+            while (reader.next()) {
+                actual.add(fields(reader.record()));
+            }
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void packsDatesLikeLocalDate() {
+        // Every candidate day of the century years and the leap years around them
+        for (int year : new int[] { 1900, 1999, 2000, 2023, 2024, 2100, 2400 }) {
+            for (int month = 1; month <= 12; month++) {
+                for (int day = 1; day <= 31; day++) {
+                    String text = String.format("%04d-%02d-%02d", year, month, day);
+                    CsvTokenizer tokenizer = tokenizer(text);
+                    tokenizer.nextRecord(true);
+                    if (day <= LocalDate.of(year, month, 1).lengthOfMonth()) {
+                        assertEquals(year * 10000 + month * 100 + day, tokenizer.fieldAsPackedDate(0), text);
+                    } else {
+                        assertThrows(DateTimeException.class, () -> tokenizer.fieldAsPackedDate(0), text);
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "2023-2-28", "2023/02/28", "20230228", "2023-02-2x", "2023-00-10", "2023-13-01",
+            "2023-01-00", "-023-01-01", "2023-01-01T00" })
+    void rejectsMalformedDates(String text) {
+        CsvTokenizer tokenizer = tokenizer(text);
+        tokenizer.nextRecord(true);
+        assertThrows(DateTimeException.class, () -> tokenizer.fieldAsPackedDate(0));
+    }
+
+    @Test
+    void packsAnEmptyDateAsZero() {
+        CsvTokenizer tokenizer = tokenizer("1, , x");
+        tokenizer.nextRecord(true);
+        assertEquals(0, tokenizer.fieldAsPackedDate(1));
+    }
+
+    private static List<List<String>> records(String text) {
+        List<List<String>> records = new ArrayList<>();
+        collect(tokenizer(text), true, records);
+        return records;
+    }
+
+    private static void collect(CsvTokenizer tokenizer, boolean endOfInput, List<List<String>> records) {
+        while (tokenizer.nextRecord(endOfInput)) {
+            records.add(fields(tokenizer));
+        }
+    }
+
+    private static List<String> fields(CsvTokenizer tokenizer) {
+        List<String> fields = new ArrayList<>();
+        for (int field = 0; field < tokenizer.fieldCount(); field++) {
+            fields.add(tokenizer.field(field));
+        }
+        return fields;
+    }
+
+    private static CsvTokenizer tokenizer(String text) {
+        return new CsvTokenizer(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}
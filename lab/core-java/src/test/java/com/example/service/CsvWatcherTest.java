@@ -0,0 +1,172 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CsvWatcherTest {
+
+    private static final String HEADER = "id, name\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deliversALineOnlyOnceItIsComplete() throws IOException {
+        Path csv = write("users.csv", HEADER + "1, ann\n2, b");
+        Recorder recorder = new Recorder();
+        try (CsvWatcher<String> watcher = watcher(csv).subscribe(recorder)) {
+            watcher.poll();
+            assertEquals(List.of("1|ann"), recorder.records);
+            assertEquals(HEADER.length() + 7, watcher.getOffset());
+
+            append(csv, "ob\n3, carol\n");
+            watcher.poll();
+            assertEquals(List.of("1|ann", "2|bob", "3|carol"), recorder.records);
+            watcher.poll();
+            assertEquals(3, recorder.records.size());
+        }
+    }
+
+    @Test
+    void redeliversEverythingAfterATruncation() throws IOException {
+        Path csv = write("users.csv", HEADER + "1, ann\n2, bob\n");
+        Recorder recorder = new Recorder();
+        try (CsvWatcher<String> watcher = watcher(csv).subscribe(recorder)) {
+            watcher.poll();
+            Files.writeString(csv, HEADER + "1, ann\n");
+            watcher.poll();
+            assertEquals(1, recorder.resets);
+            assertEquals(List.of("1|ann", "2|bob", "1|ann"), recorder.records);
+        }
+    }
+
+    @Test
+    void followsARotationToTheNewFile() throws IOException {
+        Path csv = write("users.csv", HEADER + "1, ann\n");
+        Recorder recorder = new Recorder();
+        try (CsvWatcher<String> watcher = watcher(csv).subscribe(recorder)) {
+            watcher.poll();
+            Files.move(csv, directory.resolve("users.csv.1"));
+            watcher.poll();
+            assertEquals(0, recorder.resets);
+
+            // Longer than the old file, so only the new file key tells the rotation apart
+            write("users.csv", HEADER + "2, bob\n3, carol\n");
+            watcher.poll();
+            assertEquals(1, recorder.resets);
+            assertEquals(List.of("1|ann", "2|bob", "3|carol"), recorder.records);
+        }
+    }
+
+    @Test
+    void resumesFromThePersistedOffset() throws IOException {
+        Path csv = write("users.csv", HEADER + "1, ann\n");
+        try (CsvWatcher<String> watcher = watcher(csv).subscribe(new Recorder())) {
+            watcher.poll();
+        }
+        assertTrue(Files.exists(directory.resolve("users.csv.offset")));
+
+        append(csv, "2, bob\n");
+        Recorder recorder = new Recorder();
+        try (CsvWatcher<String> watcher = watcher(csv).subscribe(recorder)) {
+            watcher.poll();
+            assertEquals(List.of("2|bob"), recorder.records);
+            assertEquals(0, recorder.resets);
+        }
+    }
+
+    @Test
+    void keepsDeliveringToOtherListenersWhenOneThrows() throws IOException {
+        Path csv = write("users.csv", HEADER + "1, ann\n");
+        Recorder failing = new Recorder() {
+            @Override
+            public void onAppend(List<String> records) {
+                throw new IllegalStateException("listener failed");
+            }
+        };
+        Recorder recorder = new Recorder();
+        try (CsvWatcher<String> watcher = watcher(csv).subscribe(failing).subscribe(recorder)) {
+            watcher.poll();
+            append(csv, "2, bob\n");
+            watcher.poll();
+        }
+        assertEquals(List.of("1|ann", "2|bob"), recorder.records);
+        assertEquals(2, failing.errors.size());
+        assertEquals("listener failed", failing.errors.get(0).getMessage());
+        assertTrue(recorder.errors.isEmpty());
+    }
+
+    @Test
+    void keepsWatchingAfterAFailedRead() throws Exception {
+        Path csv = write("users.csv", HEADER + "1, ann\n");
+        Recorder recorder = new Recorder();
+        try (CsvWatcher<String> watcher = watcher(csv).subscribe(recorder).start()) {
+            // A directory where the offset is written makes saving it fail until it is removed
+            Path blocker = Files.createDirectory(directory.resolve("users.csv.offset.tmp"));
+            append(csv, "2, bob\n");
+            await(() -> !recorder.errors.isEmpty());
+            assertTrue(watcher.isWatching());
+
+            Files.delete(blocker);
+            append(csv, "3, carol\n");
+            await(() -> recorder.records.contains("3|carol") && watcher.getFailure() == null);
+            assertTrue(watcher.isWatching());
+            assertNull(watcher.getFailure());
+            assertEquals(HEADER.length() + 23, watcher.getOffset());
+        }
+    }
+
+    private static CsvWatcher<String> watcher(Path csv) throws IOException {
+        return new CsvWatcher<>(csv, record -> record.field(0) + "|" + record.field(1));
+    }
+
+    private Path write(String name, String text) throws IOException {
+        return Files.writeString(directory.resolve(name), text);
+    }
+
+    private static void append(Path csv, String text) throws IOException {
+        Files.writeString(csv, text, StandardOpenOption.APPEND);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 20_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the watcher");
+            Thread.sleep(20);
+        }
+    }
+
+    private static class Recorder implements CsvWatcher.Listener<String> {
+
+        final List<String> records = new CopyOnWriteArrayList<>();
+        final List<Exception> errors = new CopyOnWriteArrayList<>();
+        volatile int resets;
+
+        @Override
+        public void onAppend(List<String> batch) {
+            records.addAll(batch);
+        }
+
+        @Override
+        public void onReset() {
+            resets++;
+        }
+
+        @Override
+        public void onError(Exception error) {
+            errors.add(error);
+        }
+    }
+}
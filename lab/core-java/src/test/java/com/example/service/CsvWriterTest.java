@@ -0,0 +1,163 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import com.example.model.Customer;
+import com.example.model.Staff;
+import com.example.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class CsvWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private final CsvService service = new CsvService();
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void readsBackTheUsersItWrote(boolean gzip) throws IOException {
+        List<User> users = new ArrayList<>();
+        users.add(user("1", "Ann, Jr", "O\"Neil", 20000229, "ann", "a,\"b\""));
+        users.add(user("2", "  padded ", "two\nlines", 19001231, "bob", "crlf\r\nx"));
+        users.add(user("3", "", null, 0, "Zoë", "日本"));
+        for (int id = 4; id < 30_000; id++) {
+            // enough rows to fill the writer's 1 MiB buffer several times over
+            users.add(user(Integer.toString(id), "Fírst" + id, "Last" + id, 19700101 + id % 28, "user" + id,
+                    "password" + id));
+        }
+        Path file = directory.resolve(gzip ? "users.csv.gz" : "users.csv");
+        service.writeUsers(file, users, gzip);
+
+        assertEquals(CsvService.USER_HEADER, header(file));
+        assertEquals(describe(users), describe(read(file, service::toUser)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void readsBackTheStaffItWrote(boolean gzip) throws IOException {
+        List<Staff> staff = List.of(staff("1", "Sales", 1000f), staff("2", "R&D, Labs", 2500.5f),
+                staff("3", "IT", -12.25f));
+        Path file = directory.resolve(gzip ? "staff.csv.gz" : "staff.csv");
+        service.writeStaff(file, staff.stream(), gzip);
+
+        assertEquals(CsvService.STAFF_HEADER, header(file));
+        assertEquals(describe(staff), describe(read(file, service::toStaff)));
+        if (!gzip) {
+            assertEquals(CsvService.STAFF_HEADER + "\n1, Sales, 1000\n2, \"R&D, Labs\", 2500.5\n3, IT, -12.25\n",
+                    Files.readString(file));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void readsBackTheCustomersItWrote(boolean gzip) throws IOException {
+        List<Customer> customers = List.of(customer("1", "C-1", "North", "EUR"),
+                customer("2", "C \"2\"", "South, East", "USD"));
+        Path file = directory.resolve(gzip ? "customer.csv.gz" : "customer.csv");
+        service.writeCustomers(file, customers, gzip);
+
+        assertEquals(CsvService.CUSTOMER_HEADER, header(file));
+        assertEquals(describe(customers), describe(read(file, service::toCustomer)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void compressesOnlyWhenAsked(boolean gzip) throws IOException {
+        Path file = directory.resolve("users.out");
+        service.writeUsers(file, List.of(user("1", "Ann", "Lee", 19900115, "ann", "a1")), gzip);
+        byte[] start = new byte[2];
+        try (InputStream in = Files.newInputStream(file)) {
+            in.read(start);
+        }
+        assertArrayEquals(gzip ? new byte[] { 0x1f, (byte) 0x8b } : new byte[] { 'i', 'd' }, start);
+    }
+
+    @Test
+    void splitsHeadersLikeDataRows() {
+        assertArrayEquals(new String[] { "user-id", "department", "salary" },
+                CsvService.columns(CsvService.STAFF_HEADER));
+        assertArrayEquals(new String[] { "id", "name, full", "note \"x\"" },
+                CsvService.columns("id,\"name, full\" ,  \"note \"\"x\"\"\"\r\n"));
+        assertArrayEquals(new String[0], CsvService.columns(""));
+    }
+
+    private static String header(Path file) throws IOException {
+        try (InputStream in = file.getFileName().toString().endsWith(".gz")
+                ? new GZIPInputStream(Files.newInputStream(file)) : Files.newInputStream(file)) {
+            return new String(in.readNBytes(512)).lines().findFirst().orElse("");
+        }
+    }
+
+    private static <T> List<T> read(Path file, Function<CsvTokenizer, T> mapper) throws IOException {
+        CsvReader reader = CsvReader.open(file);
+        reader.next();
+        try (Stream<T> records = reader.map(mapper)) {
+            return records.collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> describe(List<? extends User> users) {
+        return users.stream().map(user -> {
+            String text = user.getId() + "|" + blank(user.getFirstName()) + "|" + blank(user.getLastName()) + "|"
+                    + user.getPackedDob() + "|" + user.getUserName() + "|" + user.getPassword();
+            if (user instanceof Staff staff) {
+                text += "|" + staff.getDepartment() + "|" + staff.getSalary();
+            } else if (user instanceof Customer customer) {
+                text += "|" + customer.getCustomerId() + "|" + customer.getRegion() + "|" + customer.getCurrency();
+            }
+            return text;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Null and empty fields are both written as nothing and read back as empty.
+     */
+    private static String blank(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static User user(String id, String firstName, String lastName, int packedDob, String userName,
+                             String password) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setPackedDob(packedDob);
+        user.setUserName(userName);
+        user.setPassword(password);
+        return user;
+    }
+
+    private static Staff staff(String id, String department, Float salary) {
+        Staff staff = new Staff();
+        staff.setId(id);
+        staff.setDepartment(department);
+        staff.setSalary(salary);
+        return staff;
+    }
+
+    private static Customer customer(String id, String customerId, String region, String currency) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setCustomerId(customerId);
+        customer.setRegion(region);
+        customer.setCurrency(currency);
+        return customer;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.example.model.Customer;
+import com.example.model.Staff;
+import com.example.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JoinServiceTest {
+
+    private static final int USERS = 200;
+    /**
+     * Small enough that neither side fits, so the join sorts both files in many runs.
+     */
+    private static final long SORT_MERGE_BUDGET = 4096;
+
+    @TempDir
+    Path directory;
+
+    private CsvService service;
+
+    @BeforeEach
+    void writeFiles() throws IOException {
+        // Users out of id order, so the sort-merge join has to sort them
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; id <= USERS; id++) {
+            ids.add(id);
+        }
+        Collections.shuffle(ids, new Random(42));
+        StringBuilder users = new StringBuilder(CsvService.USER_HEADER).append('\n');
+        for (int id : ids) {
+            users.append(id).append(", First").append(id).append(", Last").append(id)
+                    .append(String.format(", %04d-%02d-%02d", 1950 + id % 50, 1 + id % 12, 1 + id % 28))
+                    .append(", user").append(id).append(", password").append(id).append('\n');
+        }
+        Files.writeString(directory.resolve(CsvService.USER_CSV), users);
+
+        StringBuilder staff = new StringBuilder(CsvService.STAFF_HEADER).append('\n');
+        for (int id = USERS; id >= 3; id -= 3) {
+            staff.append(id).append(", Dept").append(id % 4).append(", ").append(1000 * id).append('\n');
+        }
+        staff.append("9, Second, 1\n"); // a user with two staff rows
+        staff.append("999, Orphan, 2\n"); // no such user
+        Files.writeString(directory.resolve(CsvService.STAFF_CSV), staff);
+
+        StringBuilder customers = new StringBuilder(CsvService.CUSTOMER_HEADER).append('\n');
+        for (int id = 5; id <= USERS; id += 5) {
+            customers.append(id).append(", C").append(id).append(", Region").append(id % 3).append(", EUR\n");
+        }
+        customers.append("1000, C1000, Nowhere, USD\n");
+        Files.writeString(directory.resolve(CsvService.CUSTOMER_CSV), customers);
+
+        service = new CsvService(directory);
+    }
+
+    @Test
+    void hashAndSortMergeJoinsReturnTheSameStaff() throws IOException {
+        List<String> expected = expectedStaff();
+        assertEquals(USERS / 3 + 1, expected.size());
+        assertEquals(expected, staff(new JoinService(service, Long.MAX_VALUE)));
+        assertEquals(expected, staff(new JoinService(service, SORT_MERGE_BUDGET)));
+    }
+
+    @Test
+    void hashAndSortMergeJoinsReturnTheSameCustomers() throws IOException {
+        List<String> expected = expectedCustomers();
+        assertEquals(USERS / 5, expected.size());
+        assertEquals(expected, customers(new JoinService(service, Long.MAX_VALUE)));
+        assertEquals(expected, customers(new JoinService(service, SORT_MERGE_BUDGET)));
+    }
+
+    @Test
+    void hashJoinOnUsersReturnsTheSameStaff() throws IOException {
+        List<String> expected = expectedStaff();
+        // Pad staff.csv with rows of unknown users until it is the larger side
+        StringBuilder orphans = new StringBuilder();
+        for (int id = 10_000; id < 20_000; id++) {
+            orphans.append(id).append(", Orphan, 1\n");
+        }
+        Files.writeString(directory.resolve(CsvService.STAFF_CSV), orphans, StandardOpenOption.APPEND);
+        assertEquals(expected, staff(new JoinService(service, Long.MAX_VALUE)));
+    }
+
+    @Test
+    void sortMergeJoinReturnsRowsInIdOrder() throws IOException {
+        try (Stream<Staff> staff = new JoinService(service, SORT_MERGE_BUDGET).streamStaff()) {
+            List<Integer> ids = staff.map(member -> Integer.parseInt(member.getId())).collect(Collectors.toList());
+            List<Integer> sorted = new ArrayList<>(ids);
+            Collections.sort(sorted);
+            assertEquals(sorted, ids);
+        }
+    }
+
+    /**
+     * Staff joined by hand from the parsed files, without JoinService.
+     */
+    private List<String> expectedStaff() throws IOException {
+        List<User> users;
+        try (Stream<User> rows = service.streamUsers()) {
+            users = rows.collect(Collectors.toList());
+        }
+        try (Stream<Staff> rows = service.streamStaff()) {
+            return rows.flatMap(member -> users.stream()
+                            .filter(user -> user.getId().equals(member.getId()))
+                            .map(user -> describe(user) + "|" + member.getDepartment() + "|" + member.getSalary()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private List<String> expectedCustomers() throws IOException {
+        List<User> users;
+        try (Stream<User> rows = service.streamUsers()) {
+            users = rows.collect(Collectors.toList());
+        }
+        try (Stream<Customer> rows = service.streamCustomers()) {
+            return rows.flatMap(customer -> users.stream()
+                            .filter(user -> user.getId().equals(customer.getId()))
+                            .map(user -> describe(user) + "|" + customer.getCustomerId() + "|"
+                                    + customer.getRegion() + "|" + customer.getCurrency()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> staff(JoinService join) throws IOException {
+        try (Stream<Staff> staff = join.streamStaff()) {
+            return staff.map(member -> describe(member) + "|" + member.getDepartment() + "|" + member.getSalary())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> customers(JoinService join) throws IOException {
+        try (Stream<Customer> customers = join.streamCustomers()) {
+            return customers.map(customer -> describe(customer) + "|" + customer.getCustomerId() + "|"
+                            + customer.getRegion() + "|" + customer.getCurrency())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String describe(User user) {
+        return user.getId() + "|" + user.getFirstName() + "|" + user.getLastName() + "|" + user.getPackedDob()
+                + "|" + user.getUserName() + "|" + user.getPassword();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.example.model.SalaryStats;
+import com.example.model.Staff;
+import com.example.model.StaffColumns;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StaffAnalyticsTest {
+
+    @TempDir
+    Path directory;
+
+    private CsvService service;
+    private final StaffAnalytics analytics = new StaffAnalytics();
+
+    @BeforeEach
+    void writeStaff() throws IOException {
+        Files.writeString(directory.resolve(CsvService.STAFF_CSV), CsvService.STAFF_HEADER + "\n"
+                + "1, IT, 100\n"
+                + "2, Sales, 300\n"
+                + "3, IT, \n"
+                + "4, IT, 200\n"
+                + "5, Sales, 100\n"
+                + "6, Ops, \n");
+        service = new CsvService(directory);
+    }
+
+    @Test
+    void skipsStaffWithoutASalary() throws IOException {
+        StaffColumns columns = service.getStaffColumns();
+        assertEquals(6, columns.size());
+        assertEquals(Float.NaN, columns.getSalary(2));
+
+        SalaryStats totals = analytics.salaryTotals(columns);
+        assertEquals(4, totals.getCount());
+        assertEquals(700, totals.getSum());
+        assertEquals(175, totals.getAverage());
+        assertEquals(150, totals.getPercentile(50));
+        assertEquals(300f, totals.getMax());
+
+        try (Stream<Staff> staff = service.streamStaff()) {
+            assertNull(staff.filter(member -> member.getId().equals("3")).findFirst().orElseThrow().getSalary());
+        }
+    }
+
+    @Test
+    void groupsSalariesByDepartment() throws IOException {
+        Map<String, SalaryStats> byDepartment = analytics.salaryByDepartment(service.getStaffColumns());
+        assertEquals(List.of("IT", "Sales", "Ops"), List.copyOf(byDepartment.keySet()));
+
+        SalaryStats it = byDepartment.get("IT");
+        assertEquals(2, it.getCount());
+        assertEquals(300, it.getSum());
+        assertEquals(150, it.getPercentile(50));
+        assertEquals(100f, it.getMin());
+
+        SalaryStats sales = byDepartment.get("Sales");
+        assertEquals(200, sales.getAverage());
+        assertEquals(280, sales.getPercentile(90), 1e-9);
+        assertEquals(0, byDepartment.get("Ops").getCount());
+    }
+
+    @Test
+    void keepsADepartmentWithNoRows() throws IOException {
+        service.getDepartments().code("HR");
+        Map<String, SalaryStats> byDepartment = analytics.salaryByDepartment(service.getStaffColumns());
+        assertEquals(List.of("HR", "IT", "Sales", "Ops"), List.copyOf(byDepartment.keySet()));
+        SalaryStats hr = byDepartment.get("HR");
+        assertEquals(0, hr.getCount());
+        assertEquals(0, hr.getSum());
+        assertEquals(Double.NaN, hr.getAverage());
+        assertEquals(Double.NaN, hr.getPercentile(50));
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.example.model.StaffColumns;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StringDictionaryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resolvesEachCodeBackToItsValue() {
+        StringDictionary dictionary = new StringDictionary();
+        assertEquals(0, dictionary.code("Sales"));
+        assertEquals(1, dictionary.code("R&D, Labs"));
+        assertEquals(2, dictionary.code(""));
+        assertEquals(0, dictionary.code("Sales"));
+        assertEquals("R&D, Labs", dictionary.value(1));
+        assertEquals("", dictionary.value(2));
+        assertEquals(3, dictionary.size());
+        assertArrayEquals(new String[] { "Sales", "R&D, Labs", "" }, dictionary.values());
+        assertNull(dictionary.intern((String) null));
+    }
+
+    @Test
+    void internsTokenizedFieldsAsTheSameInstance() {
+        StringDictionary dictionary = new StringDictionary();
+        CsvTokenizer record = tokenizer("1, Sales, \"R&D, \"\"Labs\"\"\", Zoë\n");
+        assertTrue(record.nextRecord(true));
+
+        String sales = dictionary.intern(record, 1);
+        assertSame(sales, dictionary.intern(new String("Sales")));
+        assertSame(sales, dictionary.intern(record, 1));
+        assertSame(dictionary.intern("R&D, \"Labs\""), dictionary.intern(record, 2));
+        assertSame(dictionary.intern(record, 3), dictionary.intern("Zoë"));
+        assertEquals(dictionary.code("Zoë"), dictionary.code(record, 3));
+        assertEquals(3, dictionary.size());
+    }
+
+    @Test
+    void keepsCodesWhenGrowing() {
+        StringDictionary dictionary = new StringDictionary();
+        int count = StringDictionary.INITIAL_CAPACITY * 5 + 1;
+        for (int value = 0; value < count; value++) {
+            assertEquals(value, dictionary.code("value-" + value));
+        }
+        for (int value = 0; value < count; value++) {
+            assertEquals(value, dictionary.code("value-" + value));
+            assertEquals("value-" + value, dictionary.value(value));
+        }
+        assertEquals(count, dictionary.size());
+    }
+
+    @Test
+    void stopsAddingAtMaxSize() {
+        StringDictionary dictionary = new StringDictionary();
+        for (int value = 0; value < StringDictionary.MAX_SIZE; value++) {
+            dictionary.code(Integer.toString(value));
+        }
+        assertEquals(-1, dictionary.code("one more"));
+        assertEquals(-1, dictionary.code(tokenizedField("one more"), 0));
+        assertEquals("one more", dictionary.intern("one more"));
+        assertEquals(StringDictionary.MAX_SIZE, dictionary.size());
+        assertEquals(42, dictionary.code("42"));
+        assertEquals(StringDictionary.MAX_SIZE - 1, dictionary.code(Integer.toString(StringDictionary.MAX_SIZE - 1)));
+    }
+
+    @Test
+    void givesOneDenseCodePerValueAcrossThreads() throws Exception {
+        StringDictionary dictionary = new StringDictionary();
+        int threads = 8;
+        int count = 2000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Map<String, Integer>>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            List<String> values = new ArrayList<>();
+            for (int value = 0; value < count; value++) {
+                values.add("value-" + value);
+            }
+            Collections.shuffle(values, new Random(thread));
+            tasks.add(() -> {
+                start.await();
+                Map<String, Integer> codes = new HashMap<>();
+                for (String value : values) {
+                    int code = dictionary.code(value);
+                    // A code seen by one thread must resolve for it straight away
+                    assertEquals(value, dictionary.value(code));
+                    codes.put(value, code);
+                }
+                return codes;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Map<String, Integer>>> results = new ArrayList<>();
+            for (Callable<Map<String, Integer>> task : tasks) {
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+            Map<String, Integer> first = results.get(0).get();
+            for (Future<Map<String, Integer>> result : results) {
+                assertEquals(first, result.get());
+            }
+            assertEquals(count, dictionary.size());
+            assertEquals(count, first.values().stream().distinct().count());
+            assertTrue(first.values().stream().allMatch(code -> code >= 0 && code < count));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sharesDepartmentCodesWithStaffColumns() throws IOException {
+        Files.writeString(directory.resolve(CsvService.STAFF_CSV), CsvService.STAFF_HEADER
+                + "\n1, IT, 10\n2, Sales, 20\n3, IT, 30\n");
+        CsvService service = new CsvService(directory);
+        StringDictionary departments = service.getDepartments();
+        assertEquals(0, departments.code("HR"));
+
+        StaffColumns columns = service.getStaffColumns();
+        assertArrayEquals(new int[] { departments.code("IT"), departments.code("Sales"), departments.code("IT") },
+                columns.getDepartmentCodes());
+        assertArrayEquals(new String[] { "HR", "IT", "Sales" }, columns.getDepartments());
+        assertSame(departments.value(1), columns.getDepartment(0));
+    }
+
+    private static CsvTokenizer tokenizedField(String value) {
+        CsvTokenizer record = tokenizer(value + "\n");
+        record.nextRecord(true);
+        return record;
+    }
+
+    private static CsvTokenizer tokenizer(String text) {
+        return new CsvTokenizer(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}
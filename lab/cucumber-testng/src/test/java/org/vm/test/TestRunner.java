@@ -1,6 +1,7 @@
 package org.vm.test;
 
 import org.testng.annotations.DataProvider;
+import org.vm.test.shard.ShardPlanner;
 
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
@@ -16,17 +17,23 @@ import io.cucumber.testng.CucumberOptions;
         "timeline:target/cucumber-reports/timeline",
         "usage:target/cucumber-reports/usage.json",
         "rerun:target/cucumber-reports/rerun.txt",
-        "org.vm.test.plugins.DetailedReporter"
+        "org.vm.test.plugins.DetailedReporter",
+        "org.vm.test.plugins.LatencyMetricsPlugin"
     },
     monochrome = true,
     publish = false
 )
 public class TestRunner extends AbstractTestNGCucumberTests {
 
+    /**
+     * Scenarios run concurrently on TestNG's data provider pool. Its size comes from the
+     * {@code dataproviderthreadcount} property, set through {@code -Dscenario.threads=N} in the pom.
+     * When sharding, only this shard's scenarios are returned, slowest first (see {@link ShardPlanner}).
+     */
     @Override
-    @DataProvider(parallel = false)
+    @DataProvider(parallel = true)
     public Object[][] scenarios() {
-        return super.scenarios();
+        return ShardPlanner.get().scenarios(super.scenarios());
     }
 
 }
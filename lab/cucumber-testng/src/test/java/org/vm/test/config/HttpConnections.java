@@ -0,0 +1,137 @@
+package org.vm.test.config;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.BasicClientConnectionManager;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.vm.test.metrics.EndpointMetrics;
+import org.vm.test.metrics.LatencyHistogram;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+
+/**
+ * HTTP client setup for RestAssured. With pooling on, one client with a pooled connection manager
+ * is shared by every request, so keep-alive connections are reused across scenarios and threads;
+ * with pooling off every request gets a new client and connection, which is RestAssured's
+ * default. Either way the time spent opening connections is recorded and exported with the
+ * endpoint latencies, so the two modes can be compared by running the same suite with
+ * {@code -Dhttp.pooling=true} and {@code false}.
+ *
+ * <p>RestAssured 5 still drives the HttpClient 4 classic API ({@code AbstractHttpClient}), hence
+ * the deprecated connection manager classes.
+ */
+@SuppressWarnings("deprecation")
+public final class HttpConnections {
+
+    private static final long POOL_TIMEOUT_MILLIS = 30_000;
+
+    private static final LatencyHistogram CONNECT_TIME = new LatencyHistogram();
+    private static final LongAdder REQUESTS = new LongAdder();
+
+    /**
+     * Reads every response body in full. A pooled connection only goes back to the pool once its
+     * body has been consumed, and a test that fails on the status code never reads it.
+     */
+    static final Filter CONSUME_RESPONSE = (requestSpec, responseSpec, context) -> {
+        Response response = context.next(requestSpec, responseSpec);
+        response.asByteArray();
+        return response;
+    };
+
+    private HttpConnections() {
+    }
+
+    static HttpClientConfig httpClientConfig(boolean pooling, int maxPerRoute, int maxTotal) {
+        HttpClientConfig config = HttpClientConfig.httpClientConfig();
+        if (!pooling) {
+            return config.dontReuseHttpClientInstance()
+                    .httpClientFactory(() -> countingClient(new TimedBasicConnectionManager()));
+        }
+        return config.reuseHttpClientInstance().httpClientFactory(() -> {
+            PoolingClientConnectionManager manager = new TimedPoolingConnectionManager();
+            manager.setDefaultMaxPerRoute(maxPerRoute);
+            manager.setMaxTotal(maxTotal);
+            DefaultHttpClient client = countingClient(manager);
+            client.getParams().setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, POOL_TIMEOUT_MILLIS);
+            return client;
+        });
+    }
+
+    /**
+     * Time spent establishing TCP connections, one value per connection opened.
+     */
+    public static LatencyHistogram getConnectTime() {
+        return CONNECT_TIME;
+    }
+
+    public static long getConnectionsOpened() {
+        return CONNECT_TIME.getCount();
+    }
+
+    public static long getRequests() {
+        return REQUESTS.sum();
+    }
+
+    /**
+     * Connection use so far, for {@link EndpointMetrics#export}.
+     */
+    public static EndpointMetrics.Connections stats() {
+        return new EndpointMetrics.Connections(TestConfig.httpPooling(), getRequests(), CONNECT_TIME);
+    }
+
+    private static DefaultHttpClient countingClient(ClientConnectionManager manager) {
+        DefaultHttpClient client = new DefaultHttpClient(manager);
+        client.addRequestInterceptor((request, context) -> REQUESTS.increment());
+        return client;
+    }
+
+    private static class TimedConnectionOperator extends DefaultClientConnectionOperator {
+
+        TimedConnectionOperator(SchemeRegistry schemes) {
+            super(schemes);
+        }
+
+        @Override
+        public void openConnection(OperatedClientConnection connection, HttpHost target, InetAddress local,
+                                   HttpContext context, HttpParams params) throws IOException {
+            long start = System.nanoTime();
+            super.openConnection(connection, target, local, context, params);
+            CONNECT_TIME.record(System.nanoTime() - start);
+        }
+    }
+
+    private static class TimedPoolingConnectionManager extends PoolingClientConnectionManager {
+
+        TimedPoolingConnectionManager() {
+            super(SchemeRegistryFactory.createDefault());
+        }
+
+        @Override
+        protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemes) {
+            return new TimedConnectionOperator(schemes);
+        }
+    }
+
+    private static class TimedBasicConnectionManager extends BasicClientConnectionManager {
+
+        @Override
+        protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemes) {
+            return new TimedConnectionOperator(schemes);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.vm.test.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Locale;
+
+import org.vm.test.context.ExchangeLog;
+import org.vm.test.context.ResponseContext;
+import org.vm.test.metrics.EndpointMetrics;
+import org.vm.test.mock.MockServer;
+import org.vm.test.replay.ReplayFilter;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.LogConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+
+/**
+ * Central test configuration. Values come from system properties (e.g. {@code -Dbase.uri=...}),
+ * then environment variables, then defaults.
+ *
+ * <p>RestAssured keeps its defaults in static fields, so instead of assigning
+ * {@code RestAssured.baseURI} each test starts its own {@link RequestSpecification} from
+ * {@link #requestSpec()}. That keeps scenarios isolated when they run in parallel.
+ *
+ * <p>With {@code -Dmock.embedded=true} the tests run against a {@link MockServer} started in this
+ * JVM from {@code mock.config} instead of {@code base.uri}. The default is
+ * {@code src/test/resources/mocks/config.json}: the shared {@code mocks/config.json} plus the
+ * login of the one valid user in core-java's {@code user.csv}.
+ */
+public final class TestConfig {
+
+    private static final String DEFAULT_BASE_URI = "http://192.168.176.1:3000";
+
+    private static final String DEFAULT_MOCK_CONFIG = "src/test/resources/mocks/config.json";
+
+    private static final boolean MOCK_EMBEDDED = Boolean.parseBoolean(get("mock.embedded", "MOCK_EMBEDDED", "false"));
+
+    private static final String BASE_URI = MOCK_EMBEDDED ? startMockServer()
+            : get("base.uri", "API_BASE_URI", DEFAULT_BASE_URI);
+
+    private static final boolean HTTP_POOLING = Boolean.parseBoolean(get("http.pooling", "HTTP_POOLING", "true"));
+
+    private static final int HTTP_MAX_CONNECTIONS_PER_ROUTE = Integer.parseInt(
+            get("http.maxConnectionsPerRoute", "HTTP_MAX_CONNECTIONS_PER_ROUTE", "50"));
+
+    private static final int HTTP_MAX_CONNECTIONS = Integer.parseInt(
+            get("http.maxConnections", "HTTP_MAX_CONNECTIONS", "200"));
+
+    private static final Path CREDENTIALS_DIRECTORY = Paths.get(
+            get("credentials.dir", "CREDENTIALS_DIR", "../core-java/src/main/resources"));
+
+    private static final Path CREDENTIALS_EXPECTATIONS = Paths.get(get("credentials.expectations",
+            "CREDENTIALS_EXPECTATIONS", "src/test/resources/data/user-expectations.csv"));
+
+    private static final ReplayFilter REPLAY = new ReplayFilter(
+            ReplayFilter.Mode.valueOf(get("http.replay", "HTTP_REPLAY", "off").toUpperCase(Locale.ROOT)),
+            Paths.get(get("http.replay.dir", "HTTP_REPLAY_DIR", "target/http-replay")),
+            Duration.ofSeconds(Long.parseLong(get("http.replay.ttl", "HTTP_REPLAY_TTL", "86400"))));
+
+    private static final RestAssuredConfig REST_ASSURED_CONFIG = RestAssuredConfig.config()
+            .logConfig(LogConfig.logConfig().enableLoggingOfRequestAndResponseIfValidationFails())
+            .httpClient(HttpConnections.httpClientConfig(HTTP_POOLING, HTTP_MAX_CONNECTIONS_PER_ROUTE,
+                    HTTP_MAX_CONNECTIONS));
+
+    private static final RequestSpecification REQUEST_SPEC = new RequestSpecBuilder()
+            .setBaseUri(BASE_URI)
+            .setContentType(ContentType.JSON)
+            .setConfig(REST_ASSURED_CONFIG)
+            .addFilter(EndpointMetrics.FILTER)
+            .addFilter(HttpConnections.CONSUME_RESPONSE)
+            .addFilter(ResponseContext.CAPTURE)
+            .addFilter(ExchangeLog.CAPTURE)
+            .addFilter(REPLAY)
+            .build();
+
+    private TestConfig() {
+    }
+
+    public static String baseUri() {
+        return BASE_URI;
+    }
+
+    /**
+     * Whether requests share one pooled, keep-alive HTTP client ({@code -Dhttp.pooling}, default
+     * true). See {@link HttpConnections}.
+     */
+    public static boolean httpPooling() {
+        return HTTP_POOLING;
+    }
+
+    /**
+     * The record/replay filter ({@code -Dhttp.replay=off|record|replay|offline}, default off), which
+     * keeps responses in {@code http.replay.dir} for {@code http.replay.ttl} seconds (0 for ever).
+     */
+    public static ReplayFilter replay() {
+        return REPLAY;
+    }
+
+    /**
+     * Directory holding the {@code user.csv} the data-driven credential tests read
+     * ({@code -Dcredentials.dir}, default core-java's resources).
+     */
+    public static Path credentialsDirectory() {
+        return CREDENTIALS_DIRECTORY;
+    }
+
+    /**
+     * The {@code user-name, expected-status} file giving the /auth status of every user in
+     * {@code user.csv}, in the same order ({@code -Dcredentials.expectations}, default the one for
+     * core-java's 100 users).
+     */
+    public static Path credentialsExpectations() {
+        return CREDENTIALS_EXPECTATIONS;
+    }
+
+    public static int httpMaxConnectionsPerRoute() {
+        return HTTP_MAX_CONNECTIONS_PER_ROUTE;
+    }
+
+    /**
+     * The shared request template. Apply it with {@code given().spec(TestConfig.requestSpec())},
+     * which copies it into a new specification, and never modify it directly.
+     */
+    public static RequestSpecification requestSpec() {
+        return REQUEST_SPEC;
+    }
+
+    /**
+     * Whether requests go to the in-process mock server ({@code -Dmock.embedded}, default false).
+     */
+    public static boolean mockEmbedded() {
+        return MOCK_EMBEDDED;
+    }
+
+    /**
+     * Starts the embedded mock on {@code mock.port} (default 0, any free port). It is stopped when
+     * the JVM exits.
+     */
+    private static String startMockServer() {
+        Path config = Paths.get(get("mock.config", "MOCK_CONFIG", DEFAULT_MOCK_CONFIG));
+        try {
+            MockServer server = MockServer.start(config, Integer.parseInt(get("mock.port", "MOCK_PORT", "0")));
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close, "mock-server-shutdown"));
+            System.out.println("Embedded mock server serving " + config + " at " + server.uri());
+            return server.uri();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the embedded mock server from " + config, e);
+        }
+    }
+
+    static String get(String property, String environmentVariable, String defaultValue) {
+        String value = System.getProperty(property);
+        if (value != null && !value.isBlank()) {
+            return value;
+        }
+        value = System.getenv(environmentVariable);
+        if (value != null && !value.isBlank()) {
+            return value;
+        }
+        return defaultValue;
+    }
+}
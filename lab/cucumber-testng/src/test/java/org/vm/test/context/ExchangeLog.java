@@ -0,0 +1,113 @@
+package org.vm.test.context;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import io.restassured.filter.Filter;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+
+/**
+ * The last requests made on the current thread and their responses, kept for diagnosing a failed
+ * scenario or test. Recording only keeps references to what RestAssured already holds, so passing
+ * tests pay nothing for it; the text is built by {@link #describe()} once something has failed.
+ * Only the most recent exchanges are kept and long bodies are cut short.
+ */
+public final class ExchangeLog {
+
+    private record Exchange(String method, String uri, Headers requestHeaders, Object requestBody,
+            Response response, Throwable error, long nanos) {
+    }
+
+    private static final int MAX_EXCHANGES = 20;
+    private static final int MAX_BODY_CHARS = 4096;
+    private static final ThreadLocal<Deque<Exchange>> EXCHANGES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Records every request of the thread that sent it, including those that got no response.
+     */
+    public static final Filter CAPTURE = (requestSpec, responseSpec, context) -> {
+        long start = System.nanoTime();
+        Response response = null;
+        Throwable error = null;
+        try {
+            response = context.next(requestSpec, responseSpec);
+            return response;
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            record(new Exchange(requestSpec.getMethod(), requestSpec.getURI(), requestSpec.getHeaders(),
+                    requestSpec.getBody(), response, error, System.nanoTime() - start));
+        }
+    };
+
+    private ExchangeLog() {
+    }
+
+    private static void record(Exchange exchange) {
+        Deque<Exchange> exchanges = EXCHANGES.get();
+        if (exchanges.size() == MAX_EXCHANGES) {
+            exchanges.removeFirst();
+        }
+        exchanges.addLast(exchange);
+    }
+
+    public static void clear() {
+        EXCHANGES.get().clear();
+    }
+
+    public static boolean isEmpty() {
+        return EXCHANGES.get().isEmpty();
+    }
+
+    /**
+     * The recorded exchanges of this thread, oldest first, as text for a report.
+     */
+    public static String describe() {
+        Deque<Exchange> exchanges = EXCHANGES.get();
+        if (exchanges.isEmpty()) {
+            return "No requests were made";
+        }
+        StringBuilder text = new StringBuilder();
+        text.append("Last ").append(exchanges.size()).append(" request(s), oldest first:");
+        for (Exchange exchange : exchanges) {
+            text.append("\n\n").append(exchange.method()).append(' ').append(exchange.uri())
+                    .append(String.format(" (%.1f ms)", exchange.nanos() / 1_000_000.0));
+            appendHeaders(text, exchange.requestHeaders());
+            appendBody(text, exchange.requestBody());
+            if (exchange.response() == null) {
+                text.append("\n<-- no response: ").append(exchange.error());
+                continue;
+            }
+            text.append("\n<-- ").append(exchange.response().getStatusLine());
+            appendHeaders(text, exchange.response().getHeaders());
+            appendBody(text, exchange.response().asByteArray());
+        }
+        return text.toString();
+    }
+
+    private static void appendHeaders(StringBuilder text, Headers headers) {
+        if (headers == null) {
+            return;
+        }
+        for (Header header : headers) {
+            text.append("\n  ").append(header.getName()).append(": ").append(header.getValue());
+        }
+    }
+
+    private static void appendBody(StringBuilder text, Object body) {
+        String value = body instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8)
+                : body == null ? "" : body.toString();
+        if (value.isEmpty()) {
+            return;
+        }
+        boolean truncated = value.length() > MAX_BODY_CHARS;
+        text.append("\n  ").append((truncated ? value.substring(0, MAX_BODY_CHARS) : value).replace("\n", "\n  "));
+        if (truncated) {
+            text.append("... (").append(value.length()).append(" chars)");
+        }
+    }
+}
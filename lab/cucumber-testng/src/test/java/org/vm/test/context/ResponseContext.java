@@ -0,0 +1,135 @@
+package org.vm.test.context;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.JsonPointerBasedFilter;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+
+/**
+ * The last response received on the current thread, i.e. by the running scenario or test method.
+ * The body is taken from RestAssured once and decoded or parsed at most once, so steps can inspect
+ * it repeatedly at no extra cost.
+ *
+ * <p>{@link #at(String)} looks values up by JSON pointer. Bodies larger than the streaming
+ * threshold ({@code -Djson.streamingThreshold}, default 1 MB) are not parsed into a tree unless
+ * {@link #json()} is called; the pointer is matched while streaming over the tokens and only the
+ * selected value is built.
+ */
+public class ResponseContext {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int STREAMING_THRESHOLD = Integer.getInteger("json.streamingThreshold", 1024 * 1024);
+    private static final ThreadLocal<ResponseContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Makes every response the current one of the thread that received it.
+     */
+    public static final Filter CAPTURE = (requestSpec, responseSpec, context) -> {
+        Response response = context.next(requestSpec, responseSpec);
+        CURRENT.set(new ResponseContext(response));
+        return response;
+    };
+
+    private final Response response;
+    private byte[] body;
+    private String bodyAsString;
+    private JsonNode json;
+
+    public ResponseContext(Response response) {
+        this.response = response;
+    }
+
+    /**
+     * The last response received on this thread.
+     *
+     * @throws IllegalStateException when no request has been made since {@link #clear()}
+     */
+    public static ResponseContext current() {
+        ResponseContext context = CURRENT.get();
+        if (context == null) {
+            throw new IllegalStateException("No response has been received yet");
+        }
+        return context;
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public Response response() {
+        return response;
+    }
+
+    public int statusCode() {
+        return response.getStatusCode();
+    }
+
+    public byte[] body() {
+        if (body == null) {
+            body = response.asByteArray();
+        }
+        return body;
+    }
+
+    /**
+     * The body decoded with the charset of the response, decoded on first use.
+     */
+    public String bodyAsString() {
+        if (bodyAsString == null) {
+            bodyAsString = response.asString();
+        }
+        return bodyAsString;
+    }
+
+    /**
+     * The whole body as a Jackson tree, parsed on first use.
+     */
+    public JsonNode json() {
+        if (json == null) {
+            try {
+                json = MAPPER.readTree(body());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Response body is not valid JSON", e);
+            }
+        }
+        return json;
+    }
+
+    /**
+     * The value at a JSON pointer such as {@code /token} or {@code /users/0/id}, or a missing
+     * node. Uses the tree if it exists or the body is small, otherwise {@link #stream(String)}.
+     */
+    public JsonNode at(String pointer) {
+        if (json != null || body().length < STREAMING_THRESHOLD) {
+            return json().at(pointer);
+        }
+        return stream(pointer);
+    }
+
+    /**
+     * Finds the value at a JSON pointer by streaming over the body; only that value is built,
+     * never the rest of the document.
+     */
+    public JsonNode stream(String pointer) {
+        TokenFilter filter = new JsonPointerBasedFilter(JsonPointer.compile(pointer));
+        try (JsonParser parser = new FilteringParserDelegate(MAPPER.getFactory().createParser(body()), filter,
+                TokenFilter.Inclusion.ONLY_INCLUDE_ALL, false)) {
+            if (parser.nextToken() == null) {
+                return MissingNode.getInstance();
+            }
+            return MAPPER.readTree(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Response body is not valid JSON", e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.vm.test.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Feeds the items of a stream to a fixed number of workers. The stream is only read as fast as
+ * the workers take items, so no more than {@code workers} items are in memory at a time however
+ * long the stream is. Each item runs on its own virtual thread; a check that throws counts as a
+ * failure and the run carries on.
+ */
+public class BulkRunner {
+
+    private static final int MAX_REPORTED_FAILURES = 10;
+
+    private final int workers;
+
+    public BulkRunner(int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Workers must be positive: " + workers);
+        }
+        this.workers = workers;
+    }
+
+    public <T> Result run(Stream<T> items, Consumer<? super T> check) {
+        Result result = new Result();
+        Semaphore permits = new Semaphore(workers);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            items.forEach(item -> {
+                permits.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        check.accept(item);
+                    } catch (Throwable e) {
+                        result.fail(e);
+                    } finally {
+                        result.checked.increment();
+                        permits.release();
+                    }
+                });
+            });
+        }
+        return result;
+    }
+
+    public static class Result {
+
+        private final LongAdder checked = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final List<String> firstFailures = Collections.synchronizedList(new ArrayList<>());
+
+        private void fail(Throwable error) {
+            failures.increment();
+            synchronized (firstFailures) {
+                if (firstFailures.size() < MAX_REPORTED_FAILURES) {
+                    firstFailures.add(String.valueOf(error.getMessage()));
+                }
+            }
+        }
+
+        public long getChecked() {
+            return checked.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * Messages of the first few failures, so the check should name the item it failed on.
+         */
+        public List<String> getFirstFailures() {
+            synchronized (firstFailures) {
+                return List.copyOf(firstFailures);
+            }
+        }
+
+        public String summary() {
+            StringBuilder summary = new StringBuilder();
+            summary.append(getFailures()).append(" of ").append(getChecked()).append(" checks failed");
+            getFirstFailures().forEach(failure -> summary.append("\n  ").append(failure));
+            if (getFailures() > getFirstFailures().size()) {
+                summary.append("\n  ...");
+            }
+            return summary.toString();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.vm.test.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.example.model.User;
+import com.example.service.CsvReader;
+import com.example.service.CsvService;
+
+/**
+ * Login credentials read from a {@code user.csv} through core-java's {@link CsvService}, each with
+ * the status /auth is expected to answer. Expectations come from a second CSV file with the columns
+ * {@code user-name, expected-status}, one row per user in the same order, so both files are read
+ * side by side one row at a time and a file with hundreds of thousands of users never has to fit in
+ * memory. A row whose user name does not match, or a user without a row, fails the read.
+ */
+public final class CsvCredentials {
+
+    /**
+     * One user's credentials and the status the API should answer them with.
+     */
+    public record Credential(String userName, String password, int expectedStatus) {
+
+        /**
+         * The credentials as the /auth request body expects them.
+         */
+        public Map<String, String> body() {
+            return Map.of("user_name", userName, "password", password);
+        }
+
+        @Override
+        public String toString() {
+            return userName + " (expected " + expectedStatus + ")";
+        }
+    }
+
+    private CsvCredentials() {
+    }
+
+    /**
+     * Every user with their expected status. The caller must close the stream to release the files.
+     */
+    public static Stream<Credential> stream(Path directory, Path expectations) throws IOException {
+        Stream<User> users = new CsvService(directory).streamUsers();
+        CsvReader reader;
+        try {
+            reader = CsvReader.open(expectations);
+            reader.next(); // header
+        } catch (IOException e) {
+            users.close();
+            throw e;
+        }
+        Iterator<User> rows = users.iterator();
+        Iterator<Credential> credentials = new Iterator<>() {
+
+            private long row;
+
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Credential next() {
+                User user = rows.next();
+                row++;
+                try {
+                    if (!reader.next()) {
+                        throw new IllegalStateException(expectations + " has no row for user " + row + ", "
+                                + user.getUserName());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read " + expectations, e);
+                }
+                String expectedUser = reader.record().field(0);
+                if (!user.getUserName().equals(expectedUser)) {
+                    throw new IllegalStateException(expectations + " row " + row + " is for " + expectedUser
+                            + " but user " + row + " is " + user.getUserName());
+                }
+                return new Credential(user.getUserName(), user.getPassword(),
+                        (int) reader.record().fieldAsLong(1));
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(credentials,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(users::close)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Rows of user name, password and expected status for a TestNG data provider. Returning the iterator
+     * keeps TestNG from reading the whole file up front; the files are closed once the last of at
+     * most {@code limit} rows has been handed out.
+     */
+    public static Iterator<Object[]> dataProvider(Path directory, Path expectations, long limit) {
+        Stream<Credential> credentials;
+        try {
+            credentials = stream(directory, expectations);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read credentials from " + directory, e);
+        }
+        Iterator<Credential> rows = credentials.limit(limit).iterator();
+        return new Iterator<>() {
+
+            private boolean closed;
+
+            @Override
+            public synchronized boolean hasNext() {
+                if (closed) {
+                    return false;
+                }
+                if (!rows.hasNext()) {
+                    credentials.close();
+                    closed = true;
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public synchronized Object[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Credential credential = rows.next();
+                return new Object[] { credential.userName(), credential.password(), credential.expectedStatus() };
+            }
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package org.vm.test.load;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.testng.Assert;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import org.vm.test.TestNGAuthenticationTests;
+import org.vm.test.config.TestConfig;
+import org.vm.test.plugins.LatencyMetricsListener;
+import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+
+/**
+ * Runs the functional /auth checks as a load test: every scenario of {@code AuthenticationTests.feature}
+ * is run by the Cucumber runtime, with its hooks and all of its steps, and the TestNG test methods
+ * are called directly, so the load test cannot drift from them. Run it with the {@code load}
+ * profile:
+ *
+ * <pre>
+ * mvn test -Pload -Dload.rate=200 -Dload.rampUp=10 -Dload.duration=60 -Dload.scenarios=cucumber
+ * </pre>
+ *
+ * Rate is in iterations per second, ramp-up and duration in seconds. {@code load.scenarios} is
+ * {@code cucumber}, {@code testng} or {@code all}.
+ */
+@Listeners(LatencyMetricsListener.class)
+public class AuthenticationLoadTest {
+
+    @Test(description = "Load test /auth with the functional authentication scenarios")
+    public void loadTestAuthentication() {
+        double rate = Double.parseDouble(System.getProperty("load.rate", "20"));
+        Duration rampUp = Duration.ofSeconds(Long.getLong("load.rampUp", 5));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 30));
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.maxErrorRate", "0"));
+
+        System.out.println("=== LOAD TEST: " + TestConfig.baseUri() + " ===");
+        System.out.println("Rate: " + rate + "/s, ramp-up: " + rampUp.toSeconds() + "s, duration: "
+                + duration.toSeconds() + "s");
+
+        String selection = System.getProperty("load.scenarios", "all");
+        int maxConcurrency = TestConfig.httpMaxConnectionsPerRoute();
+        LoadGenerator.Result result;
+        try (CucumberScenarios cucumber = new CucumberScenarios(maxConcurrency)) {
+            Map<String, Runnable> scenarios = scenarios(selection, cucumber);
+            warmUp(scenarios);
+            result = new LoadGenerator(rate, rampUp, duration, maxConcurrency).run(scenarios);
+        }
+
+        System.out.println("=== LOAD TEST RESULT ===");
+        System.out.print(result.report());
+        System.out.println("========================");
+
+        double errorRate = (double) result.getFailures() / Math.max(1, result.getIterations());
+        Assert.assertTrue(errorRate <= maxErrorRate,
+                "Error rate " + errorRate + " exceeds load.maxErrorRate " + maxErrorRate);
+    }
+
+    static Map<String, Runnable> scenarios(String selection, CucumberScenarios cucumber) {
+        Map<String, Runnable> scenarios = new LinkedHashMap<>();
+        if (selection.equals("all") || selection.equals("cucumber")) {
+            scenarios.putAll(cucumber.scenarios());
+        }
+        if (selection.equals("all") || selection.equals("testng")) {
+            scenarios.put("TestNG: testValidAuthentication", () -> testNG().testValidAuthentication());
+            scenarios.put("TestNG: testInvalidAuthentication", () -> testNG().testInvalidAuthentication());
+            scenarios.put("TestNG: testEmptyCredentials", () -> testNG().testEmptyCredentials());
+        }
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("Unknown load.scenarios: " + selection);
+        }
+        return scenarios;
+    }
+
+    /**
+     * One untimed pass so class loading and the first connection do not skew the histograms.
+     * Failures here are counted again by the timed run.
+     */
+    private static void warmUp(Map<String, Runnable> scenarios) {
+        for (Runnable scenario : scenarios.values()) {
+            try {
+                scenario.run();
+            } catch (Throwable e) {
+                // reported by the timed run
+            }
+        }
+    }
+
+    /**
+     * A fresh test instance per iteration, since the TestNG class keeps its request in fields.
+     */
+    private static TestNGAuthenticationTests testNG() {
+        TestNGAuthenticationTests tests = new TestNGAuthenticationTests();
+        tests.setUpClass();
+        tests.setUpMethod();
+        return tests;
+    }
+
+    /**
+     * The scenarios of the authentication feature, parsed and run by the Cucumber runtime without
+     * any report plugins. The runtime keeps one runner per thread and loads the glue for each, so
+     * scenarios are handed to a pool of platform threads rather than run on the load generator's
+     * short-lived virtual threads. A failed or undefined step fails the iteration.
+     */
+    static final class CucumberScenarios implements AutoCloseable {
+
+        @CucumberOptions(
+            features = "src/test/resources/features/AuthenticationTests.feature",
+            glue = { "org.vm.test.stepdefs" },
+            monochrome = true,
+            publish = false
+        )
+        static final class Options {
+        }
+
+        private final TestNGCucumberRunner runner = new TestNGCucumberRunner(Options.class);
+        private final ExecutorService threads;
+
+        CucumberScenarios(int threads) {
+            this.threads = Executors.newFixedThreadPool(threads);
+        }
+
+        Map<String, Runnable> scenarios() {
+            Map<String, Runnable> scenarios = new LinkedHashMap<>();
+            for (Object[] scenario : runner.provideScenarios()) {
+                Pickle pickle = ((PickleWrapper) scenario[0]).getPickle();
+                scenarios.put("Scenario: " + pickle.getName(), () -> run(pickle));
+            }
+            return scenarios;
+        }
+
+        private void run(Pickle pickle) {
+            try {
+                threads.submit(() -> runner.runScenario(pickle)).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while running " + pickle.getName(), e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(pickle.getName() + " failed", e.getCause());
+            }
+        }
+
+        @Override
+        public void close() {
+            threads.close();
+            runner.finish();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.vm.test.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.vm.test.metrics.LatencyHistogram;
+
+/**
+ * Open-model load generator. Iterations are started on a fixed schedule that ramps linearly up
+ * to the target rate and then holds it until the duration has passed; each iteration runs on its
+ * own virtual thread, so slow responses never hold back the schedule.
+ *
+ * <p>Latency is measured from the time an iteration was scheduled to start rather than when it
+ * actually started, which keeps a stalled server from hiding its queueing delay (coordinated
+ * omission). Scenarios are run round-robin and a scenario that throws counts as a failure.
+ *
+ * <p>At most {@code maxConcurrency} iterations run at once; the rest wait on a semaphore, which
+ * unmounts the virtual thread. This keeps them out of HttpClient's connection pool, whose waiters
+ * block inside a monitor and would pin every carrier thread.
+ */
+public class LoadGenerator {
+
+    private final double ratePerSecond;
+    private final Duration rampUp;
+    private final Duration duration;
+    private final int maxConcurrency;
+
+    public LoadGenerator(double ratePerSecond, Duration rampUp, Duration duration) {
+        this(ratePerSecond, rampUp, duration, Integer.MAX_VALUE);
+    }
+
+    public LoadGenerator(double ratePerSecond, Duration rampUp, Duration duration, int maxConcurrency) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + ratePerSecond);
+        }
+        if (rampUp.isNegative() || rampUp.compareTo(duration) > 0) {
+            throw new IllegalArgumentException("Ramp-up must be between 0 and the duration: " + rampUp);
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.rampUp = rampUp;
+        this.duration = duration;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public Result run(Map<String, Runnable> scenarios) {
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("No scenarios to run");
+        }
+        List<String> names = new ArrayList<>(scenarios.keySet());
+        Map<String, ScenarioStats> stats = new LinkedHashMap<>();
+        names.forEach(name -> stats.put(name, new ScenarioStats()));
+        Semaphore permits = new Semaphore(maxConcurrency);
+        long durationNanos = duration.toNanos();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long iteration = 0; ; iteration++) {
+                long offset = scheduledOffset(iteration);
+                if (offset >= durationNanos) {
+                    break;
+                }
+                long scheduled = start + offset;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                String name = names.get((int) (iteration % names.size()));
+                Runnable scenario = scenarios.get(name);
+                ScenarioStats scenarioStats = stats.get(name);
+                executor.execute(() -> scenarioStats.run(scenario, scheduled, permits));
+            }
+        }
+        return new Result(stats, System.nanoTime() - start);
+    }
+
+    /**
+     * Nanoseconds after the start at which the given iteration is due. During ramp-up the rate
+     * grows linearly, so n iterations have been due after {@code sqrt(2 * rampUp * n / rate)}.
+     */
+    long scheduledOffset(long iteration) {
+        double rampSeconds = rampUp.toNanos() / 1e9;
+        double seconds;
+        if (iteration < ratePerSecond * rampSeconds / 2) {
+            seconds = Math.sqrt(2 * rampSeconds * iteration / ratePerSecond);
+        } else {
+            seconds = iteration / ratePerSecond + rampSeconds / 2;
+        }
+        return (long) (seconds * 1e9);
+    }
+
+    public static class ScenarioStats {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+
+        private void run(Runnable scenario, long scheduled, Semaphore permits) {
+            permits.acquireUninterruptibly();
+            long started = System.nanoTime();
+            try {
+                scenario.run();
+            } catch (Throwable e) {
+                failures.increment();
+            } finally {
+                permits.release();
+                long finished = System.nanoTime();
+                latency.record(finished - scheduled);
+                serviceTime.record(finished - started);
+            }
+        }
+
+        /**
+         * Time from the scheduled start to completion, including any queueing delay.
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Time from the actual start to completion.
+         */
+        public LatencyHistogram getServiceTime() {
+            return serviceTime;
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+    }
+
+    public static class Result {
+
+        private final Map<String, ScenarioStats> scenarios;
+        private final long elapsedNanos;
+
+        Result(Map<String, ScenarioStats> scenarios, long elapsedNanos) {
+            this.scenarios = Collections.unmodifiableMap(scenarios);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Map<String, ScenarioStats> getScenarios() {
+            return scenarios;
+        }
+
+        public long getIterations() {
+            return scenarios.values().stream().mapToLong(stats -> stats.getLatency().getCount()).sum();
+        }
+
+        public long getFailures() {
+            return scenarios.values().stream().mapToLong(ScenarioStats::getFailures).sum();
+        }
+
+        public double getThroughput() {
+            return getIterations() / (elapsedNanos / 1e9);
+        }
+
+        public String report() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("Iterations: %d, failures: %d, elapsed: %.1fs, throughput: %.1f/s%n",
+                    getIterations(), getFailures(), elapsedNanos / 1e9, getThroughput()));
+            scenarios.forEach((name, stats) -> report
+                    .append(name).append(" (failures: ").append(stats.getFailures()).append(")\n")
+                    .append("  latency:      ").append(stats.getLatency().summary()).append('\n')
+                    .append("  service time: ").append(stats.getServiceTime().summary()).append('\n'));
+            return report.toString();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package org.vm.test.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.vm.test.replay.ReplayFilter;
+
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+
+/**
+ * Response time per endpoint, keyed like {@code POST /auth}, for every request made through
+ * {@link #FILTER}. Histograms are shared by all threads and exported at the end of a run as JSON
+ * and as Prometheus text format, together with the HTTP connection statistics of the run.
+ * Responses replayed by {@link ReplayFilter} are only counted: their time is that of the cache.
+ */
+public final class EndpointMetrics {
+
+    public static final String JSON_FILE = "endpoint-latency.json";
+    public static final String PROMETHEUS_FILE = "endpoint-latency.prom";
+
+    private static final double[] PERCENTILES = {50, 90, 99};
+    private static final Map<String, LatencyHistogram> ENDPOINTS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> REPLAYED = new ConcurrentHashMap<>();
+
+    /**
+     * Times each request from sending it until the response has been received. The path is the
+     * one given to RestAssured, so templated paths such as {@code /users/{id}} stay one endpoint.
+     */
+    public static final Filter FILTER = (requestSpec, responseSpec, context) -> {
+        long start = System.nanoTime();
+        Response response = null;
+        try {
+            response = context.next(requestSpec, responseSpec);
+            return response;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            if (ReplayFilter.isReplayed(response)) {
+                recordReplayed(requestSpec.getMethod(), requestSpec.getUserDefinedPath(), nanos);
+            } else {
+                record(requestSpec.getMethod(), requestSpec.getUserDefinedPath(), nanos);
+            }
+        }
+    };
+
+    /**
+     * Connection use of the run: requests sent, and the time spent opening each new connection.
+     */
+    public record Connections(boolean pooling, long requests, LatencyHistogram connectTime) {
+
+        public long opened() {
+            return connectTime.getCount();
+        }
+
+        public double requestsPerConnection() {
+            return opened() == 0 ? 0 : (double) requests / opened();
+        }
+    }
+
+    private EndpointMetrics() {
+    }
+
+    public static void record(String method, String path, long nanos) {
+        String endpoint = endpoint(method, path);
+        ENDPOINTS.computeIfAbsent(endpoint, key -> new LatencyHistogram()).record(nanos);
+        RequestTimings.record(endpoint, nanos, false);
+    }
+
+    /**
+     * Counts a response that was replayed instead of sent; its time goes into no histogram.
+     */
+    public static void recordReplayed(String method, String path, long nanos) {
+        String endpoint = endpoint(method, path);
+        REPLAYED.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+        RequestTimings.record(endpoint, nanos, true);
+    }
+
+    /**
+     * Number of responses replayed for one endpoint, e.g. {@code replayed("POST", "/auth")}.
+     */
+    public static long replayed(String method, String path) {
+        LongAdder replayed = REPLAYED.get(endpoint(method, path));
+        return replayed == null ? 0 : replayed.sum();
+    }
+
+    /**
+     * The key of an endpoint, used alike when recording and looking up: the method in upper case
+     * and the path with a leading slash, {@code /} when empty.
+     */
+    private static String endpoint(String method, String path) {
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        } else if (path.charAt(0) != '/') {
+            path = "/" + path;
+        }
+        return method.toUpperCase(Locale.ROOT) + " " + path;
+    }
+
+    /**
+     * Histogram of one endpoint, e.g. {@code histogram("POST", "/auth")}, or null if it was never
+     * called.
+     */
+    public static LatencyHistogram histogram(String method, String path) {
+        return ENDPOINTS.get(endpoint(method, path));
+    }
+
+    /**
+     * Writes {@value #JSON_FILE} and {@value #PROMETHEUS_FILE} to {@code directory}, replacing
+     * earlier exports of the same run.
+     */
+    public static synchronized void export(Path directory, Connections connections) throws IOException {
+        Map<String, LatencyHistogram> endpoints = new TreeMap<>(ENDPOINTS);
+        Files.createDirectories(directory);
+        Map<String, Long> replayed = new TreeMap<>();
+        REPLAYED.forEach((endpoint, count) -> replayed.put(endpoint, count.sum()));
+        writeJson(directory.resolve(JSON_FILE), endpoints, replayed, connections);
+        writePrometheus(directory.resolve(PROMETHEUS_FILE), endpoints, replayed, connections);
+    }
+
+    private static void writeJson(Path file, Map<String, LatencyHistogram> endpoints, Map<String, Long> replayed,
+                                  Connections connections) throws IOException {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        TreeSet<String> names = new TreeSet<>(endpoints.keySet());
+        names.addAll(replayed.keySet());
+        for (String endpoint : names) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            LatencyHistogram histogram = endpoints.getOrDefault(endpoint, new LatencyHistogram());
+            values.put("count", histogram.getCount());
+            if (replayed.containsKey(endpoint)) {
+                values.put("replayed", replayed.get(endpoint));
+            }
+            values.put("meanMs", histogram.getMeanNanos() / 1_000_000.0);
+            for (double percentile : PERCENTILES) {
+                values.put("p" + (int) percentile + "Ms", histogram.getPercentileMillis(percentile));
+            }
+            values.put("maxMs", histogram.getMaxNanos() / 1_000_000.0);
+            stats.put(endpoint, values);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("endpoints", stats);
+        Map<String, Object> connectionStats = new LinkedHashMap<>();
+        connectionStats.put("pooling", connections.pooling());
+        connectionStats.put("requests", connections.requests());
+        connectionStats.put("opened", connections.opened());
+        connectionStats.put("requestsPerConnection", connections.requestsPerConnection());
+        LatencyHistogram connectTime = connections.connectTime();
+        connectionStats.put("connectMeanMs", connectTime.getMeanNanos() / 1_000_000.0);
+        for (double percentile : PERCENTILES) {
+            connectionStats.put("connectP" + (int) percentile + "Ms", connectTime.getPercentileMillis(percentile));
+        }
+        connectionStats.put("connectMaxMs", connectTime.getMaxNanos() / 1_000_000.0);
+        report.put("connections", connectionStats);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    private static void writePrometheus(Path file, Map<String, LatencyHistogram> endpoints,
+                                        Map<String, Long> replayed, Connections connections) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# HELP api_request_duration_seconds Response time of API requests made by the tests.\n");
+            writer.write("# TYPE api_request_duration_seconds summary\n");
+            for (Map.Entry<String, LatencyHistogram> entry : endpoints.entrySet()) {
+                String labels = labels(entry.getKey());
+                LatencyHistogram histogram = entry.getValue();
+                for (double percentile : PERCENTILES) {
+                    writer.write("api_request_duration_seconds{" + labels + ",quantile=\"" + percentile / 100 + "\"} "
+                            + seconds(histogram.getValueAtPercentile(percentile)) + "\n");
+                }
+                writer.write("api_request_duration_seconds_sum{" + labels + "} "
+                        + seconds(histogram.getSumNanos()) + "\n");
+                writer.write("api_request_duration_seconds_count{" + labels + "} " + histogram.getCount() + "\n");
+            }
+            writer.write("# HELP api_request_duration_seconds_max Slowest API request made by the tests.\n");
+            writer.write("# TYPE api_request_duration_seconds_max gauge\n");
+            for (Map.Entry<String, LatencyHistogram> entry : endpoints.entrySet()) {
+                writer.write("api_request_duration_seconds_max{" + labels(entry.getKey()) + "} "
+                        + seconds(entry.getValue().getMaxNanos()) + "\n");
+            }
+            if (!replayed.isEmpty()) {
+                writer.write("# HELP api_replayed_requests_total Requests answered from recorded responses.\n");
+                writer.write("# TYPE api_replayed_requests_total counter\n");
+                for (Map.Entry<String, Long> entry : replayed.entrySet()) {
+                    writer.write("api_replayed_requests_total{" + labels(entry.getKey()) + "} " + entry.getValue()
+                            + "\n");
+                }
+            }
+            String pooling = "pooling=\"" + connections.pooling() + "\"";
+            writer.write("# HELP api_http_requests_total HTTP requests sent by the tests.\n");
+            writer.write("# TYPE api_http_requests_total counter\n");
+            writer.write("api_http_requests_total{" + pooling + "} " + connections.requests() + "\n");
+            writer.write("# HELP api_http_connections_opened_total Connections opened by the tests.\n");
+            writer.write("# TYPE api_http_connections_opened_total counter\n");
+            writer.write("api_http_connections_opened_total{" + pooling + "} " + connections.opened() + "\n");
+            writer.write("# HELP api_http_connect_duration_seconds Time spent opening connections.\n");
+            writer.write("# TYPE api_http_connect_duration_seconds summary\n");
+            LatencyHistogram connectTime = connections.connectTime();
+            for (double percentile : PERCENTILES) {
+                writer.write("api_http_connect_duration_seconds{" + pooling + ",quantile=\"" + percentile / 100
+                        + "\"} " + seconds(connectTime.getValueAtPercentile(percentile)) + "\n");
+            }
+            writer.write("api_http_connect_duration_seconds_sum{" + pooling + "} "
+                    + seconds(connectTime.getSumNanos()) + "\n");
+            writer.write("api_http_connect_duration_seconds_count{" + pooling + "} " + connectTime.getCount() + "\n");
+        }
+    }
+
+    private static String labels(String endpoint) {
+        int space = endpoint.indexOf(' ');
+        return "method=\"" + escape(endpoint.substring(0, space)) + "\",endpoint=\""
+                + escape(endpoint.substring(space + 1)) + "\"";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+}
@@ -0,0 +1,70 @@
+package org.vm.test.metrics;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Response time limits shared by the Gherkin latency steps and {@link LatencySla}. A breach throws
+ * an {@link AssertionError}, so it fails the scenario or test like any other assertion and shows
+ * up with its message in the Cucumber JSON and JUnit reports. Replayed responses say nothing about
+ * the API's latency, so they are never checked.
+ */
+public final class LatencyAssertions {
+
+    private LatencyAssertions() {
+    }
+
+    /**
+     * Fails unless the last request on this thread completed within {@code maxMillis}.
+     */
+    public static void assertLastResponseUnder(long maxMillis) {
+        RequestTimings.Timing last = RequestTimings.last();
+        if (last == null) {
+            throw new AssertionError("No request has been made to check the response time of");
+        }
+        if (!last.replayed() && last.millis() > maxMillis) {
+            throw new AssertionError(String.format("Latency SLA breached: %s took %.1f ms, limit is %d ms",
+                    last.endpoint(), last.millis(), maxMillis));
+        }
+    }
+
+    /**
+     * Fails unless every request in {@code timings} completed within {@code maxMillis}.
+     */
+    public static void assertAllUnder(List<RequestTimings.Timing> timings, long maxMillis) {
+        List<String> breaches = timings.stream()
+                .filter(timing -> !timing.replayed() && timing.millis() > maxMillis)
+                .map(timing -> String.format("%s took %.1f ms", timing.endpoint(), timing.millis()))
+                .collect(Collectors.toList());
+        if (!breaches.isEmpty()) {
+            throw new AssertionError("Latency SLA breached, limit is " + maxMillis + " ms: "
+                    + String.join(", ", breaches));
+        }
+    }
+
+    /**
+     * Fails unless the given percentile of all requests to {@code endpoint} so far in this run,
+     * e.g. {@code "POST /auth"}, is within {@code maxMillis}.
+     */
+    public static void assertPercentileUnder(String endpoint, double percentile, long maxMillis) {
+        int space = endpoint.indexOf(' ');
+        LatencyHistogram histogram = space < 0 ? null
+                : EndpointMetrics.histogram(endpoint.substring(0, space), endpoint.substring(space + 1));
+        if (histogram == null || histogram.getCount() == 0) {
+            if (space > 0 && EndpointMetrics.replayed(endpoint.substring(0, space), endpoint.substring(space + 1)) > 0) {
+                return;
+            }
+            throw new AssertionError("No requests recorded for " + endpoint);
+        }
+        double actual = histogram.getPercentileMillis(percentile);
+        if (actual > maxMillis) {
+            throw new AssertionError(String.format(
+                    "Latency SLA breached: p%s of %s is %.1f ms over %d requests, limit is %d ms",
+                    format(percentile), endpoint, actual, histogram.getCount(), maxMillis));
+        }
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,35 @@
+package org.vm.test.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Response time limits for a TestNG test method, enforced by
+ * {@link org.vm.test.plugins.LatencySlaListener}. A test that passes its own assertions is marked
+ * failed when any limit is exceeded.
+ *
+ * <pre>
+ * &#64;LatencySla(maxMillis = 500, endpoint = "POST /auth", percentile = 99, percentileMillis = 300)
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface LatencySla {
+
+    /**
+     * Limit for every request made by the test method; 0 for none.
+     */
+    long maxMillis() default 0;
+
+    /**
+     * Endpoint of the aggregate limit, such as {@code "POST /auth"}, over all of its requests in
+     * the run so far; empty for none.
+     */
+    String endpoint() default "";
+
+    double percentile() default 99;
+
+    long percentileMillis() default 0;
+}
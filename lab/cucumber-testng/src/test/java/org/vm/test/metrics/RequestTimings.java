@@ -0,0 +1,52 @@
+package org.vm.test.metrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Response times of the requests made by the current thread since the last {@link #reset()}.
+ * A Cucumber scenario or a TestNG test method runs on a single thread, so this is the list of
+ * requests made by the running scenario or test. Only the most recent requests are kept.
+ * Responses replayed from recordings are kept too, marked as such, since their time is not the
+ * API's.
+ */
+public final class RequestTimings {
+
+    public record Timing(String endpoint, long nanos, boolean replayed) {
+
+        public double millis() {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    private static final int MAX_TIMINGS = 1000;
+    private static final ThreadLocal<Deque<Timing>> TIMINGS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private RequestTimings() {
+    }
+
+    static void record(String endpoint, long nanos, boolean replayed) {
+        Deque<Timing> timings = TIMINGS.get();
+        if (timings.size() == MAX_TIMINGS) {
+            timings.removeFirst();
+        }
+        timings.addLast(new Timing(endpoint, nanos, replayed));
+    }
+
+    public static void reset() {
+        TIMINGS.get().clear();
+    }
+
+    /**
+     * The most recent request on this thread, or null if there was none.
+     */
+    public static Timing last() {
+        return TIMINGS.get().peekLast();
+    }
+
+    public static List<Timing> all() {
+        return new ArrayList<>(TIMINGS.get());
+    }
+}
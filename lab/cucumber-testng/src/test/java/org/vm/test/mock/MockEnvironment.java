@@ -0,0 +1,277 @@
+package org.vm.test.mock;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * A Mockoon environment, i.e. the JSON Mockoon exports such as {@code mocks/config.json}, read into
+ * what {@link MockServer} needs to serve it: the routes with their responses and rules, the global
+ * headers and latency, and the initial content of every data bucket.
+ *
+ * <p>Only the features the mocks in this repository rely on are supported. Templating, callbacks
+ * and proxying are ignored, and a rule with a target or operator that cannot be evaluated here
+ * fails the load rather than silently never matching.
+ */
+final class MockEnvironment {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path directory;
+    private final long latency;
+    private final boolean cors;
+    private final Map<String, String> headers;
+    private final List<Route> routes;
+    private final Map<String, JsonNode> dataBuckets;
+
+    private MockEnvironment(Path directory, JsonNode config) {
+        this.directory = directory;
+        this.latency = config.path("latency").asLong();
+        this.cors = config.path("cors").asBoolean();
+        this.headers = headers(config.path("headers"));
+        String prefix = config.path("endpointPrefix").asText();
+        List<Route> routes = new ArrayList<>();
+        for (JsonNode route : config.path("routes")) {
+            routes.add(Route.of(prefix, route));
+        }
+        this.routes = List.copyOf(routes);
+        Map<String, JsonNode> dataBuckets = new LinkedHashMap<>();
+        for (JsonNode bucket : config.path("data")) {
+            dataBuckets.put(bucket.path("id").asText(), parseValue(bucket.path("value").asText()));
+        }
+        this.dataBuckets = dataBuckets;
+    }
+
+    static MockEnvironment load(Path file) throws IOException {
+        return new MockEnvironment(file.toAbsolutePath().getParent(), MAPPER.readTree(file.toFile()));
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    long latency() {
+        return latency;
+    }
+
+    boolean cors() {
+        return cors;
+    }
+
+    Map<String, String> headers() {
+        return headers;
+    }
+
+    List<Route> routes() {
+        return routes;
+    }
+
+    /**
+     * The initial value of each data bucket by id. Callers get a copy of every bucket, so several
+     * servers started from one environment never share state.
+     */
+    Map<String, JsonNode> dataBuckets() {
+        Map<String, JsonNode> copy = new LinkedHashMap<>();
+        dataBuckets.forEach((id, value) -> copy.put(id, value.deepCopy()));
+        return copy;
+    }
+
+    /**
+     * Data bucket values are JSON when they parse as JSON and plain text otherwise.
+     */
+    private static JsonNode parseValue(String value) {
+        try {
+            return MAPPER.readTree(value);
+        } catch (JsonProcessingException e) {
+            return TextNode.valueOf(value);
+        }
+    }
+
+    private static Map<String, String> headers(JsonNode headers) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (JsonNode header : headers) {
+            result.put(header.path("key").asText(), header.path("value").asText());
+        }
+        return Map.copyOf(result);
+    }
+
+    /**
+     * An HTTP route, or a CRUD route that serves a data bucket under {@code /endpoint} and
+     * {@code /endpoint/:id} for every method.
+     */
+    record Route(String method, boolean crud, Pattern pattern, List<String> params, List<RouteResponse> responses,
+                 AtomicLong requestCount) {
+
+        private static final Pattern PARAM = Pattern.compile(":(\\w+)");
+
+        static Route of(String prefix, JsonNode route) {
+            boolean crud = route.path("type").asText().equals("crud");
+            String endpoint = join(prefix, route.path("endpoint").asText());
+            List<String> params = new ArrayList<>();
+            StringBuilder regex = new StringBuilder("/");
+            Matcher param = PARAM.matcher(endpoint);
+            int last = 0;
+            while (param.find()) {
+                regex.append(literal(endpoint.substring(last, param.start()))).append("([^/]+)");
+                params.add(param.group(1));
+                last = param.end();
+            }
+            regex.append(literal(endpoint.substring(last)));
+            if (crud) {
+                regex.append("(?:/([^/]+))?");
+            }
+            regex.append("/?");
+            List<RouteResponse> responses = new ArrayList<>();
+            for (JsonNode response : route.path("responses")) {
+                responses.add(RouteResponse.of(response));
+            }
+            return new Route(route.path("method").asText().toUpperCase(Locale.ROOT), crud,
+                    Pattern.compile(regex.toString()), List.copyOf(params), List.copyOf(responses), new AtomicLong());
+        }
+
+        /**
+         * Matches the request path and returns its route parameters, or null when the route does not
+         * apply. For a CRUD route the id, if any, is returned under {@link RouteResponse#crudKey()}.
+         */
+        Map<String, String> match(String requestMethod, String path) {
+            if (!crud && !method.equals(requestMethod)) {
+                return null;
+            }
+            Matcher matcher = pattern.matcher(path);
+            if (!matcher.matches()) {
+                return null;
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int index = 0; index < params.size(); index++) {
+                values.put(params.get(index), matcher.group(index + 1));
+            }
+            if (crud && matcher.group(params.size() + 1) != null) {
+                values.put(responses.get(0).crudKey(), matcher.group(params.size() + 1));
+            }
+            return values;
+        }
+
+        /**
+         * Mockoon's default response mode: the first response whose rules all (or any, depending on
+         * its operator) match, otherwise the response marked as default.
+         */
+        RouteResponse select(MockRequest request) {
+            for (RouteResponse response : responses) {
+                if (!response.rules().isEmpty() && response.matches(request)) {
+                    return response;
+                }
+            }
+            return responses.stream().filter(RouteResponse::isDefault).findFirst().orElse(responses.get(0));
+        }
+
+        private static String join(String prefix, String endpoint) {
+            if (prefix.isEmpty()) {
+                return endpoint;
+            }
+            return endpoint.isEmpty() ? prefix : prefix + "/" + endpoint;
+        }
+
+        private static String literal(String text) {
+            return text.isEmpty() ? "" : Pattern.quote(text).replace("*", "\\E.*\\Q");
+        }
+    }
+
+    record RouteResponse(int statusCode, String body, long latency, Map<String, String> headers, String bodyType,
+                         String filePath, String dataBucketId, List<Rule> rules, boolean allRules, boolean isDefault,
+                         String crudKey) {
+
+        static RouteResponse of(JsonNode response) {
+            List<Rule> rules = new ArrayList<>();
+            for (JsonNode rule : response.path("rules")) {
+                rules.add(Rule.of(rule));
+            }
+            return new RouteResponse(response.path("statusCode").asInt(200), response.path("body").asText(),
+                    response.path("latency").asLong(), MockEnvironment.headers(response.path("headers")),
+                    response.path("bodyType").asText("INLINE"), response.path("filePath").asText(),
+                    response.path("databucketID").asText(), List.copyOf(rules),
+                    response.path("rulesOperator").asText().equals("AND"), response.path("default").asBoolean(),
+                    response.path("crudKey").asText("id"));
+        }
+
+        boolean matches(MockRequest request) {
+            if (allRules) {
+                return rules.stream().allMatch(rule -> rule.matches(request));
+            }
+            return rules.stream().anyMatch(rule -> rule.matches(request));
+        }
+    }
+
+    record Rule(String target, String modifier, String value, boolean invert, String operator, Pattern pattern) {
+
+        private static final List<String> TARGETS = List.of("body", "query", "header", "cookie", "params", "path",
+                "method", "request_number");
+
+        static Rule of(JsonNode rule) {
+            String target = rule.path("target").asText();
+            String operator = rule.path("operator").asText("equals");
+            String value = rule.path("value").asText();
+            if (!TARGETS.contains(target)) {
+                throw new IllegalArgumentException("Unsupported rule target: " + target);
+            }
+            Pattern pattern = switch (operator) {
+                case "equals", "null", "empty_array", "array_includes" -> null;
+                case "regex" -> Pattern.compile(value);
+                case "regex_i" -> Pattern.compile(value, Pattern.CASE_INSENSITIVE);
+                default -> throw new IllegalArgumentException("Unsupported rule operator: " + operator);
+            };
+            return new Rule(target, rule.path("modifier").asText(), value, rule.path("invert").asBoolean(), operator,
+                    pattern);
+        }
+
+        boolean matches(MockRequest request) {
+            return test(request.value(target, modifier)) != invert;
+        }
+
+        /**
+         * {@code equals} and the regex operators match an array when any of its items matches.
+         */
+        private boolean test(JsonNode actual) {
+            boolean missing = actual == null || actual.isNull() || actual.isMissingNode();
+            return switch (operator) {
+                case "null" -> missing;
+                case "empty_array" -> !missing && actual.isArray() && actual.isEmpty();
+                case "array_includes" -> !missing && actual.isArray() && anyItem(actual, this::equalsValue);
+                default -> !missing && (actual.isArray() ? anyItem(actual, this::testValue) : testValue(actual));
+            };
+        }
+
+        private boolean testValue(JsonNode actual) {
+            return pattern == null ? equalsValue(actual) : pattern.matcher(text(actual)).find();
+        }
+
+        private boolean equalsValue(JsonNode actual) {
+            return text(actual).equals(value);
+        }
+
+        private static boolean anyItem(JsonNode array, Predicate<JsonNode> test) {
+            for (JsonNode item : array) {
+                if (test.test(item)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String text(JsonNode node) {
+            return node.isValueNode() ? node.asText() : node.toString();
+        }
+    }
+}
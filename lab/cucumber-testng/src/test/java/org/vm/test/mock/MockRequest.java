@@ -0,0 +1,154 @@
+package org.vm.test.mock;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.sun.net.httpserver.Headers;
+
+/**
+ * The parts of a request that route rules can look at. The body is parsed at most once, as JSON or
+ * as a form depending on its content type, and only when a rule asks for a field of it.
+ */
+final class MockRequest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String method;
+    private final String path;
+    private final String query;
+    private final Headers headers;
+    private final Map<String, String> params;
+    private final byte[] body;
+    private final long number;
+    private JsonNode parsedBody;
+
+    MockRequest(String method, String path, String query, Headers headers, Map<String, String> params, byte[] body,
+                long number) {
+        this.method = method;
+        this.path = path;
+        this.query = query;
+        this.headers = headers;
+        this.params = params;
+        this.body = body;
+        this.number = number;
+    }
+
+    String method() {
+        return method;
+    }
+
+    Map<String, String> params() {
+        return params;
+    }
+
+    byte[] body() {
+        return body;
+    }
+
+    /**
+     * The value a rule compares, or null when the request does not have it. Body and query
+     * modifiers are dotted paths ({@code user.name}, {@code items.0}), optionally prefixed with
+     * {@code $.}; an empty body modifier selects the raw body.
+     */
+    JsonNode value(String target, String modifier) {
+        return switch (target) {
+            case "body" -> modifier.isEmpty() ? TextNode.valueOf(new String(body, StandardCharsets.UTF_8))
+                    : find(parsedBody(), modifier);
+            case "query" -> find(form(query), modifier);
+            case "header" -> text(headers.getFirst(modifier));
+            case "cookie" -> text(cookie(modifier));
+            case "params" -> text(params.get(modifier));
+            case "path" -> TextNode.valueOf(path);
+            case "method" -> TextNode.valueOf(method.toLowerCase(Locale.ROOT));
+            case "request_number" -> LongNode.valueOf(number);
+            default -> throw new IllegalArgumentException("Unsupported rule target: " + target);
+        };
+    }
+
+    private JsonNode parsedBody() {
+        if (parsedBody == null) {
+            String contentType = headers.getFirst("Content-Type");
+            String text = new String(body, StandardCharsets.UTF_8);
+            if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+                parsedBody = form(text);
+            } else {
+                try {
+                    parsedBody = MAPPER.readTree(text);
+                } catch (Exception e) {
+                    parsedBody = MissingNode.getInstance();
+                }
+                if (parsedBody == null) {
+                    parsedBody = MissingNode.getInstance();
+                }
+            }
+        }
+        return parsedBody;
+    }
+
+    private String cookie(String name) {
+        List<String> cookies = headers.get("Cookie");
+        if (cookies == null) {
+            return null;
+        }
+        for (String header : cookies) {
+            for (String cookie : header.split(";")) {
+                int equals = cookie.indexOf('=');
+                if (equals > 0 && cookie.substring(0, equals).trim().equals(name)) {
+                    return cookie.substring(equals + 1).trim();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static JsonNode find(JsonNode node, String modifier) {
+        String path = modifier.startsWith("$.") ? modifier.substring(2) : modifier;
+        JsonNode value = node.at(JsonPointer.compile("/" + path.replace("~", "~0").replace("/", "~1")
+                .replace('.', '/')));
+        return value.isMissingNode() ? null : value;
+    }
+
+    /**
+     * A query string or form body as an object; a name given more than once becomes an array.
+     */
+    private static ObjectNode form(String encoded) {
+        ObjectNode fields = JsonNodeFactory.instance.objectNode();
+        if (encoded == null || encoded.isEmpty()) {
+            return fields;
+        }
+        for (String pair : encoded.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = decode(equals < 0 ? pair : pair.substring(0, equals));
+            TextNode value = TextNode.valueOf(equals < 0 ? "" : decode(pair.substring(equals + 1)));
+            JsonNode existing = fields.get(name);
+            if (existing == null) {
+                fields.set(name, value);
+            } else if (existing.isArray()) {
+                ((ArrayNode) existing).add(value);
+            } else {
+                fields.putArray(name).add(existing).add(value);
+            }
+        }
+        return fields;
+    }
+
+    private static String decode(String text) {
+        return URLDecoder.decode(text, StandardCharsets.UTF_8);
+    }
+
+    private static JsonNode text(String value) {
+        return value == null ? null : TextNode.valueOf(value);
+    }
+}
@@ -0,0 +1,241 @@
+package org.vm.test.mock;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.vm.test.mock.MockEnvironment.Route;
+import org.vm.test.mock.MockEnvironment.RouteResponse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process replacement for Mockoon that serves a Mockoon environment such as
+ * {@code mocks/config.json}, so test and load runs need no external mock server. Start it with
+ * {@code -Dmock.embedded=true}, see {@link org.vm.test.config.TestConfig}.
+ *
+ * <p>Connections are accepted and read on the JDK HTTP server's selector thread and every request
+ * is handled on its own virtual thread, so a response's configured latency is a sleep that holds
+ * no platform thread. Responses are chosen as Mockoon does: the first one whose rules match, else
+ * the default. CRUD routes keep their data bucket in memory for the life of the server.
+ */
+public final class MockServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final byte[] NO_BODY = new byte[0];
+
+    private final MockEnvironment environment;
+    private final Map<String, JsonNode> dataBuckets;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpServer server;
+
+    private MockServer(MockEnvironment environment, int port) throws IOException {
+        this.environment = environment;
+        this.dataBuckets = environment.dataBuckets();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Starts serving {@code config} on the loopback interface; port 0 picks a free port.
+     */
+    public static MockServer start(Path config, int port) throws IOException {
+        return new MockServer(MockEnvironment.load(config), port);
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String uri() {
+        return "http://127.0.0.1:" + port();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Reply reply;
+            try {
+                reply = reply(exchange);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                reply = new Reply(400, Map.of("Content-Type", "text/plain"), bytes("Bad request: " + e.getMessage()));
+            } catch (RuntimeException e) {
+                reply = new Reply(500, Map.of("Content-Type", "text/plain"), bytes("Mock error: " + e.getMessage()));
+            }
+            reply.headers().forEach(exchange.getResponseHeaders()::set);
+            boolean empty = reply.body().length == 0 || exchange.getRequestMethod().equals("HEAD");
+            exchange.sendResponseHeaders(reply.status(), empty ? -1 : reply.body().length);
+            if (!empty) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(reply.body());
+                }
+            }
+        }
+    }
+
+    private Reply reply(HttpExchange exchange) throws IOException, InterruptedException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (environment.cors() && method.equals("OPTIONS")) {
+            return new Reply(200, environment.headers(), NO_BODY);
+        }
+        for (Route route : environment.routes()) {
+            Map<String, String> params = route.match(method, path);
+            if (params == null) {
+                continue;
+            }
+            MockRequest request = new MockRequest(method, path, exchange.getRequestURI().getRawQuery(),
+                    exchange.getRequestHeaders(), params, exchange.getRequestBody().readAllBytes(),
+                    route.requestCount().incrementAndGet());
+            RouteResponse response = route.select(request);
+            long latency = environment.latency() + response.latency();
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+            Map<String, String> headers = new LinkedHashMap<>(environment.headers());
+            headers.putAll(response.headers());
+            if (route.crud() && response.bodyType().equals("DATABUCKET")) {
+                return crud(request, response, headers);
+            }
+            return new Reply(response.statusCode(), headers, body(response));
+        }
+        return new Reply(404, Map.of("Content-Type", "text/plain"), bytes("Cannot " + method + " " + path));
+    }
+
+    private byte[] body(RouteResponse response) throws IOException {
+        return switch (response.bodyType()) {
+            case "DATABUCKET" -> {
+                JsonNode bucket = bucket(response.dataBucketId());
+                synchronized (bucket) {
+                    yield bucket.isTextual() ? bytes(bucket.asText()) : MAPPER.writeValueAsBytes(bucket);
+                }
+            }
+            case "FILE" -> Files.readAllBytes(environment.directory().resolve(response.filePath()));
+            default -> bytes(response.body());
+        };
+    }
+
+    /**
+     * Mockoon's CRUD operations on an array data bucket, keyed by the response's {@code crudKey}.
+     */
+    private Reply crud(MockRequest request, RouteResponse response, Map<String, String> headers) throws IOException {
+        JsonNode node = bucket(response.dataBucketId());
+        if (!node.isArray()) {
+            throw new IllegalStateException("Data bucket " + response.dataBucketId() + " is not an array");
+        }
+        ArrayNode items = (ArrayNode) node;
+        String key = response.crudKey();
+        String id = request.params().get(key);
+        synchronized (items) {
+            if (id == null) {
+                switch (request.method()) {
+                    case "GET":
+                        return reply(200, headers, items);
+                    case "POST": {
+                        ObjectNode item = object(request.body());
+                        if (!item.has(key)) {
+                            item.put(key, UUID.randomUUID().toString());
+                        }
+                        items.add(item);
+                        return reply(201, headers, item);
+                    }
+                    case "PUT": {
+                        JsonNode replacement = MAPPER.readTree(request.body());
+                        if (!replacement.isArray()) {
+                            throw new IllegalArgumentException("Expected a JSON array");
+                        }
+                        items.removeAll();
+                        items.addAll((ArrayNode) replacement);
+                        return reply(200, headers, items);
+                    }
+                    case "DELETE":
+                        items.removeAll();
+                        return new Reply(200, headers, NO_BODY);
+                    default:
+                        return new Reply(405, headers, NO_BODY);
+                }
+            }
+            Iterator<JsonNode> iterator = items.elements();
+            for (int index = 0; iterator.hasNext(); index++) {
+                JsonNode item = iterator.next();
+                if (!id.equals(item.path(key).asText(null))) {
+                    continue;
+                }
+                switch (request.method()) {
+                    case "GET":
+                        return reply(200, headers, item);
+                    case "PUT": {
+                        ObjectNode replacement = object(request.body()).set(key, item.get(key));
+                        items.set(index, replacement);
+                        return reply(200, headers, replacement);
+                    }
+                    case "PATCH": {
+                        ObjectNode patched = item.deepCopy();
+                        patched.setAll(object(request.body()));
+                        patched.set(key, item.get(key));
+                        items.set(index, patched);
+                        return reply(200, headers, patched);
+                    }
+                    case "DELETE":
+                        items.remove(index);
+                        return new Reply(200, headers, NO_BODY);
+                    default:
+                        return new Reply(405, headers, NO_BODY);
+                }
+            }
+            return new Reply(404, headers, NO_BODY);
+        }
+    }
+
+    private JsonNode bucket(String id) {
+        JsonNode bucket = dataBuckets.get(id);
+        if (bucket == null) {
+            throw new IllegalStateException("No data bucket with id " + id);
+        }
+        return bucket;
+    }
+
+    private static ObjectNode object(byte[] body) throws IOException {
+        if (!(MAPPER.readTree(body) instanceof ObjectNode object)) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return object;
+    }
+
+    private static Reply reply(int status, Map<String, String> headers, JsonNode body) throws IOException {
+        return new Reply(status, headers, MAPPER.writeValueAsBytes(body));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Reply(int status, Map<String, String> headers, byte[] body) {
+    }
+}
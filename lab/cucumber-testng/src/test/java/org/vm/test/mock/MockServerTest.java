@@ -0,0 +1,245 @@
+package org.vm.test.mock;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serves a small Mockoon environment covering rule operators, route parameters and a CRUD route,
+ * plus the repository's own {@code mocks/config.json}, and checks the answers over HTTP.
+ */
+public class MockServerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String ENVIRONMENT = """
+            {
+                "endpointPrefix": "api",
+                "latency": 0,
+                "headers": [{ "key": "Content-Type", "value": "application/json" }],
+                "routes": [
+                    {
+                        "type": "http", "method": "post", "endpoint": "login",
+                        "responses": [
+                            { "statusCode": 401, "body": "{\\"message\\": \\"denied\\"}", "default": true,
+                              "rules": [] },
+                            { "statusCode": 200, "body": "{\\"token\\": \\"t\\"}", "rulesOperator": "AND",
+                              "rules": [
+                                  { "target": "body", "modifier": "user_name", "value": "ann", "operator": "equals" },
+                                  { "target": "body", "modifier": "password", "value": "^s3", "operator": "regex" }
+                              ] },
+                            { "statusCode": 202, "body": "{}", "rulesOperator": "OR",
+                              "rules": [
+                                  { "target": "header", "modifier": "X-Role", "value": "admin", "operator": "equals" },
+                                  { "target": "query", "modifier": "flag", "value": "on", "operator": "equals" }
+                              ] },
+                            { "statusCode": 203, "body": "{}", "rulesOperator": "AND",
+                              "rules": [
+                                  { "target": "body", "modifier": "$.user_name", "value": "^CAROL$",
+                                    "operator": "regex_i" },
+                                  { "target": "body", "modifier": "tags", "value": "x", "operator": "array_includes" },
+                                  { "target": "body", "modifier": "banned", "value": "", "operator": "null" },
+                                  { "target": "header", "modifier": "X-Block", "value": "yes", "operator": "equals",
+                                    "invert": true }
+                              ] }
+                        ]
+                    },
+                    {
+                        "type": "http", "method": "get", "endpoint": "items/:id/name",
+                        "responses": [
+                            { "statusCode": 404, "body": "unknown", "default": true, "rules": [] },
+                            { "statusCode": 200, "body": "seven", "rulesOperator": "OR",
+                              "rules": [{ "target": "params", "modifier": "id", "value": "7", "operator": "equals" }] }
+                        ]
+                    },
+                    {
+                        "type": "crud", "method": "", "endpoint": "books",
+                        "responses": [
+                            { "statusCode": 200, "bodyType": "DATABUCKET", "databucketID": "b1", "default": true,
+                              "rules": [] }
+                        ]
+                    }
+                ],
+                "data": [
+                    { "id": "b1", "value": "[{\\"id\\": \\"1\\", \\"title\\": \\"A\\"}, {\\"id\\": \\"2\\", \\"title\\": \\"B\\"}]" }
+                ]
+            }
+            """;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Path config;
+    private MockServer server;
+
+    @BeforeClass
+    public void writeEnvironment() throws IOException {
+        config = Files.createTempFile("mock-environment", ".json");
+        Files.writeString(config, ENVIRONMENT);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteEnvironment() throws IOException {
+        Files.deleteIfExists(config);
+    }
+
+    /**
+     * A server per test, since the CRUD tests change the data bucket.
+     */
+    @BeforeMethod
+    public void startServer() throws IOException {
+        server = MockServer.start(config, 0);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test(description = "All rules of an AND response must match, else the default is served")
+    public void matchesAllRules() throws Exception {
+        Assert.assertEquals(send("POST", "/api/login", "{\"user_name\": \"ann\", \"password\": \"s3cret\"}")
+                .statusCode(), 200);
+        Assert.assertEquals(send("POST", "/api/login", "{\"user_name\": \"ann\", \"password\": \"secret\"}")
+                .statusCode(), 401);
+        HttpResponse<String> denied = send("POST", "/api/login", "{\"user_name\": \"bob\"}");
+        Assert.assertEquals(denied.statusCode(), 401);
+        Assert.assertEquals(json(denied).path("message").asText(), "denied");
+        Assert.assertEquals(denied.headers().firstValue("Content-Type").orElse(null), "application/json");
+    }
+
+    @Test(description = "Any rule of an OR response may match, on headers or the query")
+    public void matchesAnyRule() throws Exception {
+        HttpRequest byHeader = request("POST", "/api/login", "{}").header("X-Role", "admin").build();
+        Assert.assertEquals(client.send(byHeader, HttpResponse.BodyHandlers.ofString()).statusCode(), 202);
+        Assert.assertEquals(send("POST", "/api/login?flag=on", "{}").statusCode(), 202);
+        Assert.assertEquals(send("POST", "/api/login?flag=off", "{}").statusCode(), 401);
+    }
+
+    @Test(description = "Case-insensitive regex, array_includes, null and inverted rules")
+    public void evaluatesOperators() throws Exception {
+        Assert.assertEquals(send("POST", "/api/login", "{\"user_name\": \"Carol\", \"tags\": [\"w\", \"x\"]}")
+                .statusCode(), 203);
+        Assert.assertEquals(send("POST", "/api/login", "{\"user_name\": \"Carol\", \"tags\": [\"w\"]}")
+                .statusCode(), 401);
+        Assert.assertEquals(send("POST", "/api/login",
+                "{\"user_name\": \"Carol\", \"tags\": [\"x\"], \"banned\": true}").statusCode(), 401);
+        HttpRequest blocked = request("POST", "/api/login", "{\"user_name\": \"carol\", \"tags\": [\"x\"]}")
+                .header("X-Block", "yes").build();
+        Assert.assertEquals(client.send(blocked, HttpResponse.BodyHandlers.ofString()).statusCode(), 401);
+    }
+
+    @Test(description = "Form bodies are matched like JSON bodies")
+    public void matchesFormBodies() throws Exception {
+        HttpRequest form = request("POST", "/api/login", "user_name=ann&password=s3%20cret")
+                .header("Content-Type", "application/x-www-form-urlencoded").build();
+        Assert.assertEquals(client.send(form, HttpResponse.BodyHandlers.ofString()).statusCode(), 200);
+    }
+
+    @Test(description = "Route parameters are matched and rules can read them")
+    public void matchesRouteParameters() throws Exception {
+        HttpResponse<String> seven = send("GET", "/api/items/7/name", null);
+        Assert.assertEquals(seven.statusCode(), 200);
+        Assert.assertEquals(seven.body(), "seven");
+        Assert.assertEquals(send("GET", "/api/items/8/name", null).body(), "unknown");
+    }
+
+    @Test(description = "Unknown paths and methods of HTTP routes get a 404")
+    public void rejectsUnknownRoutes() throws Exception {
+        Assert.assertEquals(send("GET", "/api/login", null).statusCode(), 404);
+        Assert.assertEquals(send("GET", "/api/missing", null).statusCode(), 404);
+        Assert.assertEquals(send("GET", "/login", null).statusCode(), 404);
+    }
+
+    @Test(description = "CRUD routes read, create, replace, patch and delete bucket items")
+    public void servesCrudRoutes() throws Exception {
+        Assert.assertEquals(json(send("GET", "/api/books", null)).size(), 2);
+        Assert.assertEquals(json(send("GET", "/api/books/2", null)).path("title").asText(), "B");
+        Assert.assertEquals(send("GET", "/api/books/3", null).statusCode(), 404);
+
+        HttpResponse<String> created = send("POST", "/api/books", "{\"title\": \"C\"}");
+        Assert.assertEquals(created.statusCode(), 201);
+        String id = json(created).path("id").asText();
+        Assert.assertFalse(id.isEmpty(), "No id generated");
+        Assert.assertEquals(json(send("GET", "/api/books/" + id, null)).path("title").asText(), "C");
+
+        JsonNode replaced = json(send("PUT", "/api/books/1", "{\"id\": \"9\", \"title\": \"A2\"}"));
+        Assert.assertEquals(replaced.path("id").asText(), "1", "PUT must keep the key");
+        Assert.assertEquals(replaced.path("title").asText(), "A2");
+
+        JsonNode patched = json(send("PATCH", "/api/books/2", "{\"year\": 2001}"));
+        Assert.assertEquals(patched.path("title").asText(), "B");
+        Assert.assertEquals(patched.path("year").asInt(), 2001);
+
+        Assert.assertEquals(send("DELETE", "/api/books/2", null).statusCode(), 200);
+        Assert.assertEquals(send("GET", "/api/books/2", null).statusCode(), 404);
+        Assert.assertEquals(json(send("GET", "/api/books", null)).size(), 2);
+
+        Assert.assertEquals(json(send("PUT", "/api/books", "[{\"id\": \"5\"}]")).size(), 1);
+        Assert.assertEquals(send("DELETE", "/api/books", null).statusCode(), 200);
+        Assert.assertEquals(json(send("GET", "/api/books", null)).size(), 0);
+    }
+
+    @Test(description = "Servers started from one environment do not share data buckets")
+    public void isolatesDataBuckets() throws Exception {
+        try (MockServer other = MockServer.start(config, 0)) {
+            send("DELETE", "/api/books", null);
+            HttpRequest list = HttpRequest.newBuilder(URI.create(other.uri() + "/api/books")).build();
+            Assert.assertEquals(MAPPER.readTree(client.send(list, HttpResponse.BodyHandlers.ofString()).body())
+                    .size(), 2);
+        }
+    }
+
+    @Test(description = "mocks/config.json accepts the known credentials and rejects others")
+    public void servesTheRepositoryMocks() throws Exception {
+        restart("../../mocks/config.json");
+        Assert.assertFalse(json(send("POST", "/auth", "{\"user_name\": \"user\", \"password\": \"password\"}"))
+                .path("token").isMissingNode());
+        Assert.assertEquals(send("POST", "/auth", "{\"user_name\": \"john.smith\", \"password\": \"password123\"}")
+                .statusCode(), 401);
+        HttpResponse<String> denied = send("POST", "/auth", "{\"user_name\": \"user\", \"password\": \"wrong\"}");
+        Assert.assertEquals(denied.statusCode(), 401);
+        Assert.assertEquals(json(denied).path("message").asText(), "user_name and password incorrect");
+    }
+
+    @Test(description = "The test mocks also accept the valid user of the CSV credential checks")
+    public void servesTheTestMocks() throws Exception {
+        restart("src/test/resources/mocks/config.json");
+        Assert.assertEquals(send("POST", "/auth", "{\"user_name\": \"user\", \"password\": \"password\"}")
+                .statusCode(), 200);
+        Assert.assertEquals(send("POST", "/auth", "{\"user_name\": \"john.smith\", \"password\": \"password123\"}")
+                .statusCode(), 200);
+        Assert.assertEquals(send("POST", "/auth", "{\"user_name\": \"john.smith\", \"password\": \"password\"}")
+                .statusCode(), 401);
+    }
+
+    private void restart(String config) throws IOException {
+        server.close();
+        server = MockServer.start(Paths.get(config), 0);
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        return client.send(request(method, path, body).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(server.uri() + path)).method(method,
+                body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static JsonNode json(HttpResponse<String> response) throws IOException {
+        return MAPPER.readTree(response.body());
+    }
+}
@@ -1,96 +1,236 @@
 package org.vm.test.plugins;
 
-import io.cucumber.plugin.EventListener;
+import io.cucumber.plugin.ConcurrentEventListener;
 import io.cucumber.plugin.event.*;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.time.LocalDateTime;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
-public class DetailedReporter implements EventListener {
+/**
+ * Writes a plain-text report of every scenario and step. Each scenario is collected on its own
+ * thread and handed over complete when it finishes, so parallel scenarios never interleave; a
+ * background thread drains a bounded queue and writes whole batches with one flush each. Scenario
+ * threads never wait for the writer: when the queue is full the scenario is left out of the report
+ * and counted, and the count is written at the end. The report is closed when the run finishes.
+ */
+public class DetailedReporter implements ConcurrentEventListener {
 
-    private static final String REPORT_FILE = "target/cucumber-reports/detailed-api-report.txt";
-    private FileWriter writer;
+    private static final Path REPORT_FILE = Paths.get("target/cucumber-reports/detailed-api-report.txt");
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int BATCH_SIZE = 256;
+    private static final Object END_OF_REPORT = new Object();
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter TIME_MILLIS = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final LongAdder dropped = new LongAdder();
+    private final Map<UUID, StringBuilder> testCases = new ConcurrentHashMap<>();
+    private final Thread writerThread;
+    private volatile boolean closed;
 
     public DetailedReporter() {
-        try {
-            writer = new FileWriter(REPORT_FILE, true);
-            writer.write("\n" + "=".repeat(80) + "\n");
-            writer.write("DETAILED API TEST REPORT - "
-                    + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "\n");
-            writer.write("=".repeat(80) + "\n\n");
-        } catch (IOException e) {
-            System.err.println("Error writing to detailed report: " + e.getMessage());
-        }
+        writerThread = new Thread(this::writeReport, "detailed-reporter");
+        writerThread.setDaemon(true);
+        writerThread.start();
     }
 
     @Override
     public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunStarted.class, this::handleTestRunStarted);
         publisher.registerHandlerFor(TestStepStarted.class, this::handleTestStepStarted);
         publisher.registerHandlerFor(TestStepFinished.class, this::handleTestStepFinished);
         publisher.registerHandlerFor(TestCaseStarted.class, this::handleTestCaseStarted);
         publisher.registerHandlerFor(TestCaseFinished.class, this::handleTestCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, this::handleTestRunFinished);
+    }
+
+    private void handleTestRunStarted(TestRunStarted event) {
+        enqueue("\n" + "=".repeat(80) + "\n"
+                + "DETAILED API TEST REPORT - " + DATE_TIME.format(event.getInstant()) + "\n"
+                + "=".repeat(80) + "\n\n");
     }
 
     private void handleTestCaseStarted(TestCaseStarted event) {
+        StringBuilder report = new StringBuilder(1024);
+        report.append("\n").append("-".repeat(60)).append("\n");
+        report.append("TEST CASE: ").append(event.getTestCase().getName()).append("\n");
+        report.append("FEATURE: ").append(event.getTestCase().getUri()).append("\n");
+        report.append("STARTED AT: ").append(TIME.format(event.getInstant())).append("\n");
+        report.append("-".repeat(60)).append("\n");
+        testCases.put(event.getTestCase().getId(), report);
+    }
+
+    private void handleTestCaseFinished(TestCaseFinished event) {
+        StringBuilder report = testCases.remove(event.getTestCase().getId());
+        if (report == null) {
+            return;
+        }
+        report.append("\nTEST CASE RESULT: ").append(event.getResult().getStatus()).append("\n");
+        report.append("FINISHED AT: ").append(TIME.format(event.getInstant())).append("\n");
+        appendError(report, event.getResult());
+        report.append("-".repeat(60)).append("\n");
+        enqueue(report.toString());
+    }
+
+    private void handleTestStepStarted(TestStepStarted event) {
+        StringBuilder report = testCases.get(event.getTestCase().getId());
+        if (report == null) {
+            return;
+        }
+        report.append("\nSTEP: ").append(event.getTestStep().getCodeLocation()).append("\n");
+        report.append("STARTED AT: ").append(TIME_MILLIS.format(event.getInstant())).append("\n");
+    }
+
+    private void handleTestStepFinished(TestStepFinished event) {
+        StringBuilder report = testCases.get(event.getTestCase().getId());
+        if (report == null) {
+            return;
+        }
+        report.append("RESULT: ").append(event.getResult().getStatus()).append("\n");
+        report.append("DURATION: ").append(event.getResult().getDuration().toMillis()).append(" ms\n");
+        appendError(report, event.getResult());
+        report.append("\n");
+    }
+
+    private void handleTestRunFinished(TestRunFinished event) {
+        close(event.getInstant());
+    }
+
+    public void close() {
+        close(Instant.now());
+    }
+
+    private synchronized void close(Instant finishedAt) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        String footer = "\n" + "=".repeat(80) + "\n";
+        if (dropped.sum() > 0) {
+            footer += dropped.sum() + " entries were left out because the report writer fell behind\n";
+        }
+        footer += "REPORT END - " + DATE_TIME.format(finishedAt) + "\n" + "=".repeat(80) + "\n";
         try {
-            writer.write("\n" + "-".repeat(60) + "\n");
-            writer.write("TEST CASE: " + event.getTestCase().getName() + "\n");
-            writer.write("FEATURE: " + event.getTestCase().getUri() + "\n");
-            writer.write("STARTED AT: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")) + "\n");
-            writer.write("-".repeat(60) + "\n");
-        } catch (IOException e) {
-            System.err.println("Error writing to detailed report: " + e.getMessage());
+            // Only the thread finishing the run waits here, for the writer to catch up
+            queue.put(footer);
+            queue.put(END_OF_REPORT);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
-    private void handleTestCaseFinished(TestCaseFinished event) {
+    private static void appendError(StringBuilder report, Result result) {
+        if (result.getError() != null) {
+            report.append("ERROR: ").append(result.getError().getMessage()).append("\n");
+        }
+    }
+
+    private void enqueue(String text) {
+        if (!closed && !queue.offer(text)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Runs on the writer thread until {@link #END_OF_REPORT} is taken. After a write error the
+     * queue is still drained so it does not stay full.
+     */
+    private void writeReport() {
+        Writer writer = open();
+        List<Object> batch = new ArrayList<>(BATCH_SIZE);
         try {
-            writer.write("\nTEST CASE RESULT: " + event.getResult().getStatus() + "\n");
-            writer.write("FINISHED AT: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")) + "\n");
-            if (event.getResult().getError() != null) {
-                writer.write("ERROR: " + event.getResult().getError().getMessage() + "\n");
+            boolean end = false;
+            while (!end) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (Object item : batch) {
+                    if (item == END_OF_REPORT) {
+                        end = true;
+                        break;
+                    }
+                    writer = write(writer, (String) item);
+                }
+                batch.clear();
+                writer = flush(writer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    System.err.println("Error writing to detailed report: " + e.getMessage());
+                }
             }
-            writer.write("-".repeat(60) + "\n");
+        }
+    }
+
+    private static Writer open() {
+        try {
+            Files.createDirectories(REPORT_FILE.getParent());
+            return Files.newBufferedWriter(REPORT_FILE, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
         } catch (IOException e) {
             System.err.println("Error writing to detailed report: " + e.getMessage());
+            return null;
         }
     }
 
-    private void handleTestStepStarted(TestStepStarted event) {
+    private static Writer write(Writer writer, String text) {
+        if (writer == null) {
+            return null;
+        }
         try {
-            writer.write("\nSTEP: " + event.getTestStep().getCodeLocation() + "\n");
-            writer.write(
-                    "STARTED AT: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss.SSS")) + "\n");
+            writer.write(text);
+            return writer;
         } catch (IOException e) {
             System.err.println("Error writing to detailed report: " + e.getMessage());
+            closeQuietly(writer);
+            return null;
         }
     }
 
-    private void handleTestStepFinished(TestStepFinished event) {
+    private static Writer flush(Writer writer) {
+        if (writer == null) {
+            return null;
+        }
         try {
-            writer.write("RESULT: " + event.getResult().getStatus() + "\n");
-            writer.write("DURATION: " + event.getResult().getDuration().toMillis() + " ms\n");
-            if (event.getResult().getError() != null) {
-                writer.write("ERROR: " + event.getResult().getError().getMessage() + "\n");
-            }
-            writer.write("\n");
+            writer.flush();
+            return writer;
         } catch (IOException e) {
             System.err.println("Error writing to detailed report: " + e.getMessage());
+            closeQuietly(writer);
+            return null;
         }
     }
 
-    public void close() {
+    private static void closeQuietly(Writer writer) {
         try {
-            if (writer != null) {
-                writer.write("\n" + "=".repeat(80) + "\n");
-                writer.write("REPORT END - "
-                        + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "\n");
-                writer.write("=".repeat(80) + "\n");
-                writer.close();
-            }
+            writer.close();
         } catch (IOException e) {
-            System.err.println("Error writing to detailed report: " + e.getMessage());
+            // already reported
         }
     }
 }
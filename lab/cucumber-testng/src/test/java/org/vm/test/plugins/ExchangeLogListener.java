@@ -0,0 +1,24 @@
+package org.vm.test.plugins;
+
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import org.vm.test.context.ExchangeLog;
+
+/**
+ * Writes the requests and responses of a failed TestNG test to its report and the console.
+ * Passing tests log nothing, so the exchanges are only formatted when they are needed.
+ */
+public class ExchangeLogListener implements ITestListener {
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        ExchangeLog.clear();
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        Reporter.log(result.getMethod().getQualifiedName() + " failed. " + ExchangeLog.describe(), true);
+        ExchangeLog.clear();
+    }
+}
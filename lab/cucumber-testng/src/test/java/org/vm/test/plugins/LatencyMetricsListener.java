@@ -0,0 +1,16 @@
+package org.vm.test.plugins;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * TestNG counterpart of {@link LatencyMetricsPlugin}: exports the per-endpoint response times when
+ * a suite finishes. Register it with {@code @Listeners} or in the suite XML.
+ */
+public class LatencyMetricsListener implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        LatencyMetricsPlugin.export();
+    }
+}
@@ -0,0 +1,31 @@
+package org.vm.test.plugins;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestRunFinished;
+import java.io.IOException;
+import java.nio.file.Paths;
+import org.vm.test.config.HttpConnections;
+import org.vm.test.metrics.EndpointMetrics;
+
+/**
+ * Exports the per-endpoint response times and HTTP connection statistics recorded during the
+ * Cucumber run to {@code target/cucumber-reports/} when the run finishes.
+ */
+public class LatencyMetricsPlugin implements ConcurrentEventListener {
+
+    static final String REPORT_DIRECTORY = "target/cucumber-reports";
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunFinished.class, event -> export());
+    }
+
+    static void export() {
+        try {
+            EndpointMetrics.export(Paths.get(REPORT_DIRECTORY), HttpConnections.stats());
+        } catch (IOException e) {
+            System.err.println("Error writing latency metrics: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.vm.test.plugins;
+
+import java.lang.reflect.Method;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+import org.vm.test.metrics.LatencyAssertions;
+import org.vm.test.metrics.LatencySla;
+import org.vm.test.metrics.RequestTimings;
+
+/**
+ * Enforces {@link LatencySla} on TestNG test methods: the requests made by a passing test are
+ * checked against its limits and a breach turns the result into a failure carrying the
+ * assertion message.
+ */
+public class LatencySlaListener implements IInvokedMethodListener {
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            RequestTimings.reset();
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod() || testResult.getStatus() != ITestResult.SUCCESS) {
+            return;
+        }
+        Method javaMethod = method.getTestMethod().getConstructorOrMethod().getMethod();
+        LatencySla sla = javaMethod == null ? null : javaMethod.getAnnotation(LatencySla.class);
+        if (sla == null) {
+            return;
+        }
+        try {
+            if (sla.maxMillis() > 0) {
+                LatencyAssertions.assertAllUnder(RequestTimings.all(), sla.maxMillis());
+            }
+            if (!sla.endpoint().isEmpty() && sla.percentileMillis() > 0) {
+                LatencyAssertions.assertPercentileUnder(sla.endpoint(), sla.percentile(), sla.percentileMillis());
+            }
+        } catch (AssertionError e) {
+            testResult.setStatus(ITestResult.FAILURE);
+            testResult.setThrowable(e);
+        }
+    }
+}
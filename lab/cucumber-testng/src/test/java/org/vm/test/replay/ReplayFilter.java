@@ -0,0 +1,200 @@
+package org.vm.test.replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Records responses to disk and replays them, so unchanged requests can be answered without the
+ * API. Requests are keyed by a SHA-256 of their method, path and query, headers and body; scheme,
+ * host and port are left out, so recordings made against one server (or one run of the embedded
+ * mock on a random port) still match. The filter runs last in the chain, so logging and
+ * {@link org.vm.test.context.ResponseContext} see a replayed response like a live one. Replayed
+ * responses carry {@value #REPLAYED_HEADER}, which keeps the time spent in the cache out of the
+ * endpoint latencies and SLA checks.
+ *
+ * <p>Server errors (5xx) are passed through but never recorded.
+ */
+public class ReplayFilter implements OrderedFilter {
+
+    public enum Mode {
+        /** Every request goes to the API. */
+        OFF,
+        /** Every request goes to the API and its response is recorded, replacing older ones. */
+        RECORD,
+        /** Fresh recorded responses are replayed; other requests go to the API and are recorded. */
+        REPLAY,
+        /** Only recorded responses are served; a request without a fresh one fails. */
+        OFFLINE
+    }
+
+    /**
+     * Added to every replayed response, with the time it was recorded.
+     */
+    public static final String REPLAYED_HEADER = "X-Replayed-At";
+
+    private static final ObjectMapper CANONICAL_MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+    private final Mode mode;
+    private final ResponseStore store;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ReplayFilter(Mode mode, Path directory, Duration ttl) {
+        this.mode = mode;
+        this.store = new ResponseStore(directory, ttl);
+    }
+
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext context) {
+        if (mode == Mode.OFF) {
+            return context.next(requestSpec, responseSpec);
+        }
+        String key = key(requestSpec);
+        try {
+            if (mode != Mode.RECORD) {
+                ResponseStore.Recorded recorded = store.get(key);
+                if (recorded != null) {
+                    hits.increment();
+                    return replay(recorded);
+                }
+                if (mode == Mode.OFFLINE) {
+                    throw new IllegalStateException("No recorded response for " + requestSpec.getMethod() + " "
+                            + requestSpec.getURI() + "; record one with -Dhttp.replay=record or replay");
+                }
+            }
+            misses.increment();
+            Response response = context.next(requestSpec, responseSpec);
+            if (response.getStatusCode() < 500) {
+                store.put(key, record(response));
+            }
+            return response;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading or writing recorded response " + key, e);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Whether {@code response} was served from the recordings rather than by the API.
+     */
+    public static boolean isReplayed(Response response) {
+        return response != null && response.getHeaders().hasHeaderWithName(REPLAYED_HEADER);
+    }
+
+    /**
+     * Hex SHA-256 of the method, path and query, headers sorted by name and the body.
+     */
+    static String key(FilterableRequestSpecification requestSpec) {
+        StringBuilder request = new StringBuilder();
+        request.append(requestSpec.getMethod()).append('\n').append(pathAndQuery(requestSpec.getURI())).append('\n');
+        List<Header> headers = new ArrayList<>(requestSpec.getHeaders().asList());
+        headers.sort(Comparator.comparing((Header header) -> header.getName().toLowerCase(Locale.ROOT))
+                .thenComparing(Header::getValue));
+        for (Header header : headers) {
+            request.append(header.getName().toLowerCase(Locale.ROOT)).append(": ").append(header.getValue())
+                    .append('\n');
+        }
+        request.append('\n');
+        Object body = requestSpec.getBody();
+        if (body instanceof byte[] bytes) {
+            request.append(canonical(new String(bytes, StandardCharsets.UTF_8)));
+        } else if (body != null) {
+            request.append(canonical(body.toString()));
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(request.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String pathAndQuery(String uri) {
+        URI parsed = URI.create(uri);
+        String path = parsed.getRawPath() == null || parsed.getRawPath().isEmpty() ? "/" : parsed.getRawPath();
+        return parsed.getRawQuery() == null ? path : path + "?" + parsed.getRawQuery();
+    }
+
+    /**
+     * JSON bodies with their object keys sorted, since a body built from a {@code Map.of} or
+     * {@code HashMap} is serialized in an order that can change from one JVM to the next.
+     */
+    private static String canonical(String body) {
+        try {
+            return CANONICAL_MAPPER.writeValueAsString(CANONICAL_MAPPER.readValue(body, Object.class));
+        } catch (JsonProcessingException e) {
+            return body;
+        }
+    }
+
+    private static ResponseStore.Recorded record(Response response) {
+        List<Map.Entry<String, String>> headers = new ArrayList<>();
+        for (Header header : response.getHeaders()) {
+            headers.add(Map.entry(header.getName(), header.getValue()));
+        }
+        return new ResponseStore.Recorded(Instant.now(), response.getStatusCode(), response.getStatusLine(),
+                List.copyOf(headers), response.asByteArray());
+    }
+
+    private static Response replay(ResponseStore.Recorded recorded) {
+        List<Header> headers = new ArrayList<>(recorded.headers().size());
+        recorded.headers().forEach(header -> headers.add(new Header(header.getKey(), header.getValue())));
+        headers.add(new Header(REPLAYED_HEADER, recorded.recordedAt().toString()));
+        Headers responseHeaders = new Headers(headers);
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(recorded.statusCode())
+                .setStatusLine(recorded.statusLine())
+                .setHeaders(responseHeaders)
+                .setBody(recorded.body());
+        String contentType = responseHeaders.getValue("Content-Type");
+        if (contentType != null) {
+            builder.setContentType(contentType);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,162 @@
+package org.vm.test.replay;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.vm.test.mock.MockServer;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+/**
+ * Replay keys must not change with anything that does not change the request (server address, JSON
+ * key order, header order) and must change with everything that does. Recordings made against one
+ * server are then replayed offline against another.
+ */
+public class ReplayFilterTest {
+
+    private Path directory;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("http-replay");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted((a, b) -> b.compareTo(a)).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test(description = "The key leaves out scheme, host and port")
+    public void keyIgnoresTheServer() {
+        Assert.assertEquals(key("http://127.0.0.1:3000", "POST", "/auth?x=1", Map.of("a", "1")),
+                key("https://api.example.com:8443", "POST", "/auth?x=1", Map.of("a", "1")));
+        Assert.assertEquals(key("http://127.0.0.1:3000", "GET", "", null),
+                key("http://localhost:41234", "GET", "/", null));
+    }
+
+    @Test(description = "JSON bodies with the same content give the same key whatever their key order")
+    public void keyIgnoresJsonKeyOrder() {
+        Map<String, Object> ab = new LinkedHashMap<>();
+        ab.put("a", "1");
+        ab.put("b", Map.of("y", 2, "x", 1));
+        Map<String, Object> ba = new LinkedHashMap<>();
+        ba.put("b", Map.of("x", 1, "y", 2));
+        ba.put("a", "1");
+        Assert.assertEquals(key("http://h", "POST", "/auth", ab), key("http://h", "POST", "/auth", ba));
+    }
+
+    @Test(description = "Header order and name case do not change the key")
+    public void keyIgnoresHeaderOrder() {
+        String first = key(RestAssured.given().baseUri("http://h").header("X-A", "1").header("X-B", "2"), "GET");
+        String second = key(RestAssured.given().baseUri("http://h").header("x-b", "2").header("x-a", "1"), "GET");
+        Assert.assertEquals(first, second);
+    }
+
+    @Test(description = "Method, path, query, headers and body each change the key")
+    public void keyDistinguishesRequests() {
+        List<String> keys = List.of(
+                key("http://h", "POST", "/auth", Map.of("user_name", "user")),
+                key("http://h", "PUT", "/auth", Map.of("user_name", "user")),
+                key("http://h", "POST", "/auth/", Map.of("user_name", "user")),
+                key("http://h", "POST", "/auth?x=1", Map.of("user_name", "user")),
+                key("http://h", "POST", "/auth", Map.of("user_name", "other")),
+                key(RestAssured.given().baseUri("http://h").header("X-A", "1").contentType(ContentType.JSON)
+                        .body(Map.of("user_name", "user")), "POST", "/auth"));
+        Set<String> distinct = Set.copyOf(keys);
+        Assert.assertEquals(distinct.size(), keys.size(), "Keys collide: " + keys);
+    }
+
+    @Test(description = "Responses recorded from one server are replayed offline for another")
+    public void replaysRecordingsOffline() throws IOException {
+        Map<String, String> credentials = Map.of("user_name", "user", "password", "password");
+        Response live;
+        try (MockServer server = MockServer.start(Paths.get("../../mocks/config.json"), 0)) {
+            live = auth(new ReplayFilter(ReplayFilter.Mode.RECORD, directory, Duration.ZERO), server.uri(),
+                    credentials);
+        }
+        Assert.assertFalse(ReplayFilter.isReplayed(live));
+
+        ReplayFilter offline = new ReplayFilter(ReplayFilter.Mode.OFFLINE, directory, Duration.ZERO);
+        Response replayed = auth(offline, "http://127.0.0.1:1", credentials);
+        Assert.assertTrue(ReplayFilter.isReplayed(replayed));
+        Assert.assertEquals(replayed.getStatusCode(), live.getStatusCode());
+        Assert.assertEquals(replayed.asString(), live.asString());
+        Assert.assertEquals(replayed.jsonPath().getString("token"), live.jsonPath().getString("token"));
+        Assert.assertEquals(offline.getHits(), 1);
+
+        Exception missing = Assert.expectThrows(Exception.class,
+                () -> auth(offline, "http://127.0.0.1:1", Map.of("user_name", "user", "password", "wrong")));
+        Assert.assertTrue(String.valueOf(messages(missing)).contains("No recorded response"), messages(missing));
+    }
+
+    @Test(description = "Expired recordings are not replayed")
+    public void skipsExpiredRecordings() throws Exception {
+        Map<String, String> credentials = Map.of("user_name", "user", "password", "password");
+        try (MockServer server = MockServer.start(Paths.get("../../mocks/config.json"), 0)) {
+            auth(new ReplayFilter(ReplayFilter.Mode.RECORD, directory, Duration.ZERO), server.uri(), credentials);
+        }
+        Thread.sleep(20);
+        ReplayFilter offline = new ReplayFilter(ReplayFilter.Mode.OFFLINE, directory, Duration.ofMillis(10));
+        Assert.expectThrows(Exception.class, () -> auth(offline, "http://127.0.0.1:1", credentials));
+        Assert.assertEquals(offline.getHits(), 0);
+    }
+
+    private static Response auth(ReplayFilter filter, String baseUri, Map<String, String> credentials) {
+        return RestAssured.given().baseUri(baseUri).contentType(ContentType.JSON).body(credentials).filter(filter)
+                .post("/auth");
+    }
+
+    private static String key(String baseUri, String method, String path, Object body) {
+        RequestSpecification request = RestAssured.given().baseUri(baseUri);
+        if (body != null) {
+            request.contentType(ContentType.JSON).body(body);
+        }
+        return key(request, method, path);
+    }
+
+    private static String key(RequestSpecification request, String method) {
+        return key(request, method, "");
+    }
+
+    /**
+     * The key of the request as the filter chain would see it, without sending anything.
+     */
+    private static String key(RequestSpecification request, String method, String path) {
+        AtomicReference<String> key = new AtomicReference<>();
+        request.filter((requestSpec, responseSpec, context) -> {
+            key.set(ReplayFilter.key(requestSpec));
+            return new ResponseBuilder().setStatusCode(204).setBody(new byte[0]).build();
+        }).request(method, path);
+        return key.get();
+    }
+
+    private static String messages(Throwable error) {
+        StringBuilder text = new StringBuilder();
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            text.append(cause.getMessage()).append('\n');
+        }
+        return text.toString();
+    }
+}
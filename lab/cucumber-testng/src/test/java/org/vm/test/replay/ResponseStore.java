@@ -0,0 +1,107 @@
+package org.vm.test.replay;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Recorded responses on disk, one gzipped binary file per request key, with the entries read so
+ * far kept in memory. Files are written to a temporary name and moved into place, so parallel
+ * scenarios recording the same request never leave a torn entry behind.
+ */
+final class ResponseStore {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path directory;
+    private final Duration ttl;
+    private final Map<String, Recorded> loaded = new ConcurrentHashMap<>();
+
+    ResponseStore(Path directory, Duration ttl) {
+        this.directory = directory;
+        this.ttl = ttl;
+    }
+
+    record Recorded(Instant recordedAt, int statusCode, String statusLine, List<Map.Entry<String, String>> headers,
+                    byte[] body) {
+    }
+
+    /**
+     * The response recorded under {@code key}, or null when there is none or it has expired. A zero
+     * or negative ttl never expires entries.
+     */
+    Recorded get(String key) throws IOException {
+        Recorded recorded = loaded.get(key);
+        if (recorded == null) {
+            recorded = read(directory.resolve(key + ".bin"));
+            if (recorded == null) {
+                return null;
+            }
+            loaded.put(key, recorded);
+        }
+        if (!ttl.isZero() && !ttl.isNegative() && recorded.recordedAt().plus(ttl).isBefore(Instant.now())) {
+            loaded.remove(key, recorded);
+            return null;
+        }
+        return recorded;
+    }
+
+    void put(String key, Recorded recorded) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, key, ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(recorded.recordedAt().toEpochMilli());
+            out.writeInt(recorded.statusCode());
+            out.writeUTF(recorded.statusLine());
+            out.writeInt(recorded.headers().size());
+            for (Map.Entry<String, String> header : recorded.headers()) {
+                out.writeUTF(header.getKey());
+                out.writeUTF(header.getValue());
+            }
+            out.writeInt(recorded.body().length);
+            out.write(recorded.body());
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, directory.resolve(key + ".bin"), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        loaded.put(key, recorded);
+    }
+
+    /**
+     * Reads one entry; files written in another format version count as missing.
+     */
+    private static Recorded read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            Instant recordedAt = Instant.ofEpochMilli(in.readLong());
+            int statusCode = in.readInt();
+            String statusLine = in.readUTF();
+            int headerCount = in.readInt();
+            List<Map.Entry<String, String>> headers = new ArrayList<>(headerCount);
+            for (int index = 0; index < headerCount; index++) {
+                headers.add(Map.entry(in.readUTF(), in.readUTF()));
+            }
+            byte[] body = in.readNBytes(in.readInt());
+            return new Recorded(recordedAt, statusCode, statusLine, List.copyOf(headers), body);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.vm.test.shard;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+
+import io.cucumber.testng.AbstractTestNGCucumberTests;
+
+/**
+ * Keeps the TestNG classes that {@link ShardPlanner} puts in this shard, slowest first. Cucumber
+ * runners are always kept, since they shard their scenarios themselves. The {@code shard} profile
+ * registers it for the whole run.
+ */
+public class ShardInterceptor implements IMethodInterceptor {
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        ShardPlanner shards = ShardPlanner.get();
+        if (!shards.isEnabled()) {
+            return methods;
+        }
+        List<IMethodInstance> result = new ArrayList<>();
+        Map<String, List<IMethodInstance>> byClass = new LinkedHashMap<>();
+        for (IMethodInstance method : methods) {
+            Class<?> testClass = method.getMethod().getRealClass();
+            if (AbstractTestNGCucumberTests.class.isAssignableFrom(testClass)) {
+                result.add(method);
+            } else {
+                byClass.computeIfAbsent(testClass.getName(), name -> new ArrayList<>()).add(method);
+            }
+        }
+        for (String className : shards.select(new ArrayList<>(byClass.keySet()), ShardPlanner::classKey)) {
+            result.addAll(byClass.get(className));
+        }
+        return result;
+    }
+}
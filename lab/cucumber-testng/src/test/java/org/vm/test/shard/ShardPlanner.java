@@ -0,0 +1,236 @@
+package org.vm.test.shard;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+
+/**
+ * Splits a run into {@code shard.count} shards of about the same duration, so each can run in its
+ * own JVM (one {@code mvn test -Pshard -Dshard.index=i} per CI job) and the run takes as long as
+ * its slowest shard rather than the sum of all of them.
+ *
+ * <p>Durations come from the reports of earlier runs found under {@code shard.history} (default
+ * {@code target}, a comma-separated list of directories): scenarios from {@code cucumber.json} and
+ * TestNG classes from {@code testng-results.xml}. Items are assigned longest first, each to the
+ * shard with the least work so far; items without history count as the mean of those with one.
+ * Every shard computes the same plan from the same history and keeps its own part, slowest first.
+ */
+public final class ShardPlanner {
+
+    private static final long DEFAULT_MILLIS = 1000;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static ShardPlanner instance;
+
+    private final int index;
+    private final int count;
+    private final Map<String, Long> history;
+    private final long[] loads;
+    private final Map<String, Integer> assignments = new HashMap<>();
+
+    ShardPlanner(int index, int count, Map<String, Long> history) {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("Shard index must be between 1 and " + count + ": " + index);
+        }
+        this.index = index;
+        this.count = count;
+        this.history = history;
+        this.loads = new long[count];
+    }
+
+    /**
+     * The planner for this JVM, configured by {@code -Dshard.index} (1-based) and
+     * {@code -Dshard.count}. Sharding is off unless the count is above 1.
+     */
+    public static synchronized ShardPlanner get() {
+        if (instance == null) {
+            int count = Integer.getInteger("shard.count", 1);
+            int index = Integer.getInteger("shard.index", 1);
+            Map<String, Long> history = count > 1 ? loadHistory(System.getProperty("shard.history", "target"))
+                    : Map.of();
+            instance = new ShardPlanner(index, count, history);
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return count > 1;
+    }
+
+    /**
+     * This shard's part of the Cucumber data provider rows.
+     */
+    public Object[][] scenarios(Object[][] scenarios) {
+        if (!isEnabled()) {
+            return scenarios;
+        }
+        return select(Arrays.asList(scenarios), row -> scenarioKey(((PickleWrapper) row[0]).getPickle()))
+                .toArray(new Object[0][]);
+    }
+
+    /**
+     * Assigns the items not planned yet and returns those in this shard, slowest first. Items
+     * planned by an earlier call keep their shard, so the plan stays the same however often the
+     * runner asks.
+     */
+    public synchronized <T> List<T> select(List<T> items, Function<T, String> key) {
+        long estimate = history.isEmpty() ? DEFAULT_MILLIS
+                : history.values().stream().mapToLong(Long::longValue).sum() / history.size();
+        Comparator<T> slowestFirst = Comparator
+                .comparingLong((T item) -> history.getOrDefault(key.apply(item), estimate)).reversed()
+                .thenComparing(key);
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(slowestFirst);
+        List<T> selected = new ArrayList<>();
+        long millis = 0;
+        for (T item : sorted) {
+            String itemKey = key.apply(item);
+            Integer shard = assignments.get(itemKey);
+            long duration = history.getOrDefault(itemKey, estimate);
+            if (shard == null) {
+                shard = leastLoaded();
+                loads[shard] += duration;
+                assignments.put(itemKey, shard);
+            }
+            if (shard == index - 1) {
+                selected.add(item);
+                millis += duration;
+            }
+        }
+        System.out.printf("Shard %d/%d: %d of %d items, estimated %.1fs (history: %d items)%n", index, count,
+                selected.size(), items.size(), millis / 1000.0, history.size());
+        return selected;
+    }
+
+    static String scenarioKey(Pickle pickle) {
+        return scenarioKey(pickle.getUri(), pickle.getLine());
+    }
+
+    /**
+     * Cucumber reports relative feature URIs such as {@code file:src/test/...}, while pickles may
+     * carry absolute ones, so file URIs are keyed by their path relative to the working directory.
+     */
+    static String scenarioKey(URI uri, int line) {
+        String feature = uri.toString();
+        if ("file".equals(uri.getScheme())) {
+            Path path = uri.isOpaque() ? Paths.get(uri.getSchemeSpecificPart()) : Paths.get(uri);
+            if (path.isAbsolute()) {
+                path = Paths.get("").toAbsolutePath().relativize(path);
+            }
+            feature = path.toString().replace('\\', '/');
+        }
+        return "scenario:" + feature + ":" + line;
+    }
+
+    static String classKey(String className) {
+        return "class:" + className;
+    }
+
+    private int leastLoaded() {
+        int least = 0;
+        for (int shard = 1; shard < count; shard++) {
+            if (loads[shard] < loads[least]) {
+                least = shard;
+            }
+        }
+        return least;
+    }
+
+    /**
+     * Durations in milliseconds by item key. An item found in several reports keeps its longest
+     * duration; unreadable reports are skipped.
+     */
+    static Map<String, Long> loadHistory(String directories) {
+        Map<String, Long> history = new HashMap<>();
+        for (String directory : directories.split(",")) {
+            Path root = Paths.get(directory.trim());
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    String name = file.getFileName().toString();
+                    try {
+                        if (name.equals("cucumber.json")) {
+                            readCucumberJson(file, history);
+                        } else if (name.equals("testng-results.xml")) {
+                            readTestNGResults(file, history);
+                        }
+                    } catch (IOException e) {
+                        // A report cut short by an aborted run only costs its timings
+                        System.err.println("Skipping shard history " + file + ": " + e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading shard history from " + root, e);
+            }
+        }
+        return history;
+    }
+
+    private static void readCucumberJson(Path file, Map<String, Long> history) throws IOException {
+        for (JsonNode feature : MAPPER.readTree(file.toFile())) {
+            long background = 0;
+            for (JsonNode element : feature.path("elements")) {
+                long nanos = 0;
+                for (String phase : List.of("before", "steps", "after")) {
+                    for (JsonNode step : element.path(phase)) {
+                        nanos += step.path("result").path("duration").asLong();
+                    }
+                }
+                // A background is reported as its own element before each scenario
+                if (!element.path("type").asText().equals("scenario")) {
+                    background = nanos;
+                    continue;
+                }
+                nanos += background;
+                background = 0;
+                String key = scenarioKey(URI.create(feature.path("uri").asText()), element.path("line").asInt());
+                history.merge(key, nanos / 1_000_000, Math::max);
+            }
+        }
+    }
+
+    private static void readTestNGResults(Path file, Map<String, Long> history) throws IOException {
+        Document document;
+        try {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file.toFile());
+        } catch (Exception e) {
+            throw new IOException("Could not parse " + file, e);
+        }
+        NodeList classes = document.getElementsByTagName("class");
+        for (int classIndex = 0; classIndex < classes.getLength(); classIndex++) {
+            Element testClass = (Element) classes.item(classIndex);
+            NodeList methods = testClass.getElementsByTagName("test-method");
+            long millis = 0;
+            for (int methodIndex = 0; methodIndex < methods.getLength(); methodIndex++) {
+                String duration = ((Element) methods.item(methodIndex)).getAttribute("duration-ms");
+                millis += duration.isEmpty() ? 0 : Long.parseLong(duration);
+            }
+            history.merge(classKey(testClass.getAttribute("name")), millis, Math::max);
+        }
+    }
+}
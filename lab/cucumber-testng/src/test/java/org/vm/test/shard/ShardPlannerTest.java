@@ -0,0 +1,166 @@
+package org.vm.test.shard;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Every shard must compute the same plan from the same history, so that the shards of a run
+ * together cover each item exactly once whichever index runs them.
+ */
+public class ShardPlannerTest {
+
+    private static final Function<String, String> KEY = Function.identity();
+
+    @Test(description = "Each item lands in exactly one of the shards")
+    public void coversEveryItemOnce() {
+        List<String> items = items(50);
+        Map<String, Long> history = history(items.subList(0, 40));
+        for (int count = 1; count <= 7; count++) {
+            List<String> all = new ArrayList<>();
+            for (int index = 1; index <= count; index++) {
+                all.addAll(new ShardPlanner(index, count, history).select(items, KEY));
+            }
+            Assert.assertEquals(all.size(), items.size(), "count " + count);
+            Assert.assertEquals(new HashSet<>(all), new HashSet<>(items), "count " + count);
+        }
+    }
+
+    @Test(description = "The plan does not depend on the order the runner lists the items in")
+    public void plansDeterministically() {
+        List<String> items = items(30);
+        Map<String, Long> history = history(items.subList(10, 30));
+        List<String> shuffled = new ArrayList<>(items);
+        Collections.shuffle(shuffled, new Random(7));
+        for (int index = 1; index <= 4; index++) {
+            Assert.assertEquals(new ShardPlanner(index, 4, history).select(shuffled, KEY),
+                    new ShardPlanner(index, 4, history).select(items, KEY), "index " + index);
+        }
+    }
+
+    @Test(description = "Items planned by an earlier call keep their shard")
+    public void keepsEarlierAssignments() {
+        List<String> items = items(20);
+        Map<String, Long> history = history(items);
+        ShardPlanner planner = new ShardPlanner(2, 3, history);
+        List<String> first = planner.select(items, KEY);
+        List<String> again = planner.select(items.subList(5, 20), KEY);
+        Assert.assertEquals(again, first.stream().filter(items.subList(5, 20)::contains).collect(Collectors.toList()));
+    }
+
+    @Test(description = "Items go longest first to the shard with the least work, and run slowest first")
+    public void balancesLongestFirst() {
+        Map<String, Long> history = Map.of("a", 100L, "b", 60L, "c", 50L, "d", 40L, "e", 10L);
+        List<String> items = List.of("e", "c", "a", "d", "b");
+        Assert.assertEquals(new ShardPlanner(1, 2, history).select(items, KEY), List.of("a", "d"));
+        Assert.assertEquals(new ShardPlanner(2, 2, history).select(items, KEY), List.of("b", "c", "e"));
+    }
+
+    @Test(description = "Items without history count as the mean of those with one")
+    public void estimatesUnknownItemsAsTheMean() {
+        // x counts 200ms: a goes to shard 1, then x and b to shard 2
+        Map<String, Long> history = Map.of("a", 300L, "b", 100L);
+        List<String> items = List.of("a", "b", "x");
+        Assert.assertEquals(new ShardPlanner(1, 2, history).select(items, KEY), List.of("a"));
+        Assert.assertEquals(new ShardPlanner(2, 2, history).select(items, KEY), List.of("x", "b"));
+    }
+
+    @Test(description = "Indexes outside 1..count are rejected")
+    public void rejectsInvalidIndexes() {
+        Assert.expectThrows(IllegalArgumentException.class, () -> new ShardPlanner(0, 2, Map.of()));
+        Assert.expectThrows(IllegalArgumentException.class, () -> new ShardPlanner(3, 2, Map.of()));
+        Assert.expectThrows(IllegalArgumentException.class, () -> new ShardPlanner(1, 0, Map.of()));
+    }
+
+    @Test(description = "With a single shard the data provider rows are passed through")
+    public void passesRowsThroughWhenDisabled() {
+        Object[][] rows = { { "not a pickle" } };
+        ShardPlanner planner = new ShardPlanner(1, 1, Map.of());
+        Assert.assertFalse(planner.isEnabled());
+        Assert.assertSame(planner.scenarios(rows), rows);
+    }
+
+    @Test(description = "Absolute and relative feature URIs give the same scenario key")
+    public void keysScenariosByRelativePath() {
+        String relative = "src/test/resources/features/AuthenticationTests.feature";
+        URI absolute = Paths.get(relative).toAbsolutePath().toUri();
+        Assert.assertEquals(ShardPlanner.scenarioKey(absolute, 5), "scenario:" + relative + ":5");
+        Assert.assertEquals(ShardPlanner.scenarioKey(URI.create("file:" + relative), 5),
+                "scenario:" + relative + ":5");
+        Assert.assertEquals(ShardPlanner.scenarioKey(URI.create("classpath:features/A.feature"), 3),
+                "scenario:classpath:features/A.feature:3");
+    }
+
+    @Test(description = "History is read from Cucumber and TestNG reports, keeping the longest duration")
+    public void loadsHistoryFromReports() throws IOException {
+        Path root = Files.createTempDirectory("shard-history");
+        try {
+            Path first = Files.createDirectories(root.resolve("run1"));
+            Path second = Files.createDirectories(root.resolve("run2"));
+            Files.writeString(first.resolve("cucumber.json"), """
+                    [{ "uri": "file:features/A.feature", "elements": [
+                        { "type": "background", "steps": [{ "result": { "duration": 5000000 } }] },
+                        { "type": "scenario", "line": 7,
+                          "before": [{ "result": { "duration": 1000000 } }],
+                          "steps": [{ "result": { "duration": 20000000 } }] },
+                        { "type": "scenario", "line": 12, "steps": [{ "result": { "duration": 3000000 } }] }
+                    ] }]
+                    """);
+            Files.writeString(second.resolve("cucumber.json"), """
+                    [{ "uri": "file:features/A.feature", "elements": [
+                        { "type": "scenario", "line": 12, "steps": [{ "result": { "duration": 9000000 } }] }
+                    ] }]
+                    """);
+            Files.writeString(second.resolve("testng-results.xml"), """
+                    <testng-results><suite><test>
+                      <class name="org.vm.test.Sample">
+                        <test-method name="a" duration-ms="40"/>
+                        <test-method name="b" duration-ms="2"/>
+                      </class>
+                    </test></suite></testng-results>
+                    """);
+            Files.writeString(second.resolve("cucumber.json.tmp"), "ignored");
+            Files.writeString(Files.createDirectories(root.resolve("broken")).resolve("cucumber.json"), "[{");
+
+            Map<String, Long> history = ShardPlanner.loadHistory(root + ", " + root.resolve("missing"));
+            Assert.assertEquals(history, Map.of(
+                    "scenario:features/A.feature:7", 26L,
+                    "scenario:features/A.feature:12", 9L,
+                    "class:org.vm.test.Sample", 42L));
+        } finally {
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path file : files.sorted(Collections.reverseOrder()).collect(Collectors.toList())) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static List<String> items(int count) {
+        return IntStream.range(0, count).mapToObj(item -> String.format("item-%02d", item))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Durations with ties, so the key order decides between items as long as each other.
+     */
+    private static Map<String, Long> history(List<String> items) {
+        return items.stream().collect(Collectors.toMap(Function.identity(),
+                item -> 100L * (Math.floorMod(item.hashCode(), 5) + 1)));
+    }
+}
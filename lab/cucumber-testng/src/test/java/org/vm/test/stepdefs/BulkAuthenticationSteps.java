@@ -0,0 +1,69 @@
+package org.vm.test.stepdefs;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+
+import org.testng.Assert;
+import org.vm.test.config.TestConfig;
+import org.vm.test.context.ResponseContext;
+import org.vm.test.data.BulkRunner;
+import org.vm.test.data.CsvCredentials;
+import org.vm.test.data.CsvCredentials.Credential;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import static io.restassured.RestAssured.given;
+
+/**
+ * Checks /auth with every credential in a {@code user.csv}, streamed from disk to a bounded pool of
+ * workers so the file can hold hundreds of thousands of users. Cucumber examples have to be written
+ * into the feature file, so the rows are iterated here instead of in an Examples table. The status
+ * each user should get comes from the expectations file next to the data ({@code
+ * -Dcredentials.expectations}).
+ */
+public class BulkAuthenticationSteps {
+
+    private static final String AUTH_ENDPOINT = "/auth";
+
+    private long limit = Long.MAX_VALUE;
+    private BulkRunner.Result result;
+
+    @Given("the credentials in user.csv")
+    public void theCredentialsInUserCsv() {
+        limit = Long.MAX_VALUE;
+    }
+
+    @Given("the first {int} credentials in user.csv")
+    public void theFirstCredentialsInUserCsv(int count) {
+        limit = count;
+    }
+
+    @When("every credential is sent to the auth endpoint by {int} workers")
+    public void everyCredentialIsSentToTheAuthEndpointByWorkers(int workers) throws IOException {
+        try (Stream<Credential> credentials = CsvCredentials.stream(TestConfig.credentialsDirectory(),
+                TestConfig.credentialsExpectations())) {
+            result = new BulkRunner(workers).run(credentials.limit(limit),
+                    BulkAuthenticationSteps::checkAuthentication);
+        }
+    }
+
+    @Then("every response should have the status expected for its user")
+    public void everyResponseShouldHaveTheStatusExpectedForItsUser() {
+        Assert.assertNotNull(result, "No credentials have been sent");
+        Assert.assertTrue(result.getChecked() > 0, "No credentials found in " + TestConfig.credentialsDirectory());
+        Assert.assertEquals(result.getFailures(), 0, result.summary());
+    }
+
+    /**
+     * Each user must get the expected status, with a token on 200 and an error message otherwise.
+     */
+    private static void checkAuthentication(Credential credential) {
+        given().spec(TestConfig.requestSpec()).body(credential.body()).post(AUTH_ENDPOINT);
+        ResponseContext context = ResponseContext.current();
+        boolean valid = credential.expectedStatus() == 200;
+        String user = credential.userName();
+        Assert.assertEquals(context.statusCode(), credential.expectedStatus(), "Unexpected status for " + user);
+        Assert.assertFalse(context.at(valid ? "/token" : "/message").isMissingNode(),
+                "No " + (valid ? "token" : "error message") + " for " + user);
+    }
+}
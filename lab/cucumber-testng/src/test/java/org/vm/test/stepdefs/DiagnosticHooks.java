@@ -0,0 +1,26 @@
+package org.vm.test.stepdefs;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
+import org.vm.test.context.ExchangeLog;
+
+/**
+ * Adds the requests and responses of a failed scenario to its report. Passing scenarios log
+ * nothing, so the exchanges are only formatted when they are needed.
+ */
+public class DiagnosticHooks {
+
+    @Before
+    public void clearExchangeLog() {
+        ExchangeLog.clear();
+    }
+
+    @After
+    public void logExchangesOfFailedScenario(Scenario scenario) {
+        if (scenario.isFailed()) {
+            scenario.log(ExchangeLog.describe());
+        }
+        ExchangeLog.clear();
+    }
+}
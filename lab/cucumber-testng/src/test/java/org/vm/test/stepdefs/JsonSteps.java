@@ -0,0 +1,50 @@
+package org.vm.test.stepdefs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Then;
+import org.testng.Assert;
+import org.vm.test.context.ResponseContext;
+
+/**
+ * Assertions on the JSON body of the scenario's last response, addressed by JSON pointer
+ * (e.g. {@code /token} or {@code /users/0/user_name}). The streamed variants never build the whole
+ * document, for large payloads.
+ */
+public class JsonSteps {
+
+    @Before
+    public void clearResponseContext() {
+        ResponseContext.clear();
+    }
+
+    @Then("the response json {string} should be {string}")
+    public void theResponseJsonShouldBe(String pointer, String expected) {
+        assertValue(ResponseContext.current().at(pointer), pointer, expected);
+    }
+
+    @Then("the response json {string} should exist")
+    public void theResponseJsonShouldExist(String pointer) {
+        assertPresent(ResponseContext.current().at(pointer), pointer);
+    }
+
+    @Then("the streamed response json {string} should be {string}")
+    public void theStreamedResponseJsonShouldBe(String pointer, String expected) {
+        assertValue(ResponseContext.current().stream(pointer), pointer, expected);
+    }
+
+    @Then("the streamed response json {string} should exist")
+    public void theStreamedResponseJsonShouldExist(String pointer) {
+        assertPresent(ResponseContext.current().stream(pointer), pointer);
+    }
+
+    private static void assertPresent(JsonNode value, String pointer) {
+        Assert.assertFalse(value.isMissingNode() || value.isNull(), "Expected a value at " + pointer);
+    }
+
+    private static void assertValue(JsonNode value, String pointer, String expected) {
+        assertPresent(value, pointer);
+        Assert.assertEquals(value.isValueNode() ? value.asText() : value.toString(), expected,
+                "Unexpected value at " + pointer);
+    }
+}
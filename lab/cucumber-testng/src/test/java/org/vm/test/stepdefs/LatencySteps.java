@@ -0,0 +1,43 @@
+package org.vm.test.stepdefs;
+
+import io.cucumber.java.Before;
+import io.cucumber.java.ParameterType;
+import io.cucumber.java.en.Then;
+import org.vm.test.metrics.LatencyAssertions;
+import org.vm.test.metrics.RequestTimings;
+
+/**
+ * Response time steps usable after any step that makes a request.
+ */
+public class LatencySteps {
+
+    /**
+     * An ordinal such as {@code 1st}, {@code 50th} or {@code 99.9th}; the number is captured.
+     */
+    public static final String ORDINAL = "(\\d+(?:\\.\\d+)?)(?:st|nd|rd|th)";
+
+    @ParameterType(ORDINAL)
+    public double ordinal(String value) {
+        return Double.parseDouble(value);
+    }
+
+    @Before
+    public void resetRequestTimings() {
+        RequestTimings.reset();
+    }
+
+    @Then("the response time should be under {int} ms")
+    public void theResponseTimeShouldBeUnder(int maxMillis) {
+        LatencyAssertions.assertLastResponseUnder(maxMillis);
+    }
+
+    @Then("all response times should be under {int} ms")
+    public void allResponseTimesShouldBeUnder(int maxMillis) {
+        LatencyAssertions.assertAllUnder(RequestTimings.all(), maxMillis);
+    }
+
+    @Then("the {ordinal} percentile response time of {string} should be under {int} ms")
+    public void thePercentileResponseTimeShouldBeUnder(double percentile, String endpoint, int maxMillis) {
+        LatencyAssertions.assertPercentileUnder(endpoint, percentile, maxMillis);
+    }
+}
@@ -0,0 +1,57 @@
+package org.vm.test.stepdefs;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import io.cucumber.cucumberexpressions.Argument;
+import io.cucumber.cucumberexpressions.Expression;
+import io.cucumber.cucumberexpressions.ExpressionFactory;
+import io.cucumber.cucumberexpressions.ParameterType;
+import io.cucumber.cucumberexpressions.ParameterTypeRegistry;
+import io.cucumber.java.en.Then;
+
+/**
+ * Matches step text against the percentile step's expression the way Cucumber does, with the
+ * {@code ordinal} parameter type registered from {@link LatencySteps}.
+ */
+public class LatencyStepsTest {
+
+    @Test(description = "Percentiles are written with any English ordinal suffix, fractions included")
+    public void matchesEveryOrdinal() throws Exception {
+        Expression step = percentileStep();
+        Object[][] cases = { { "1st", 1.0 }, { "2nd", 2.0 }, { "3rd", 3.0 }, { "50th", 50.0 }, { "99th", 99.0 },
+                { "99.9th", 99.9 }, { "100th", 100.0 } };
+        for (Object[] ordinal : cases) {
+            List<Argument<?>> arguments = step.match(
+                    "the " + ordinal[0] + " percentile response time of \"POST /auth\" should be under 2000 ms");
+            Assert.assertNotNull(arguments, ordinal[0] + " did not match");
+            Assert.assertEquals(arguments.get(0).getValue(), ordinal[1]);
+            Assert.assertEquals(arguments.get(1).getValue(), "POST /auth");
+            Assert.assertEquals(arguments.get(2).getValue(), 2000);
+        }
+    }
+
+    @Test(description = "Text that is not an ordinal does not match the step")
+    public void rejectsOtherText() throws Exception {
+        Expression step = percentileStep();
+        for (String ordinal : new String[] { "99", "th", "p99", "99.th", "99xx", "-1st" }) {
+            Assert.assertNull(step.match(
+                    "the " + ordinal + " percentile response time of \"POST /auth\" should be under 2000 ms"),
+                    ordinal);
+        }
+    }
+
+    private static Expression percentileStep() throws NoSuchMethodException {
+        LatencySteps steps = new LatencySteps();
+        ParameterTypeRegistry registry = new ParameterTypeRegistry(Locale.ENGLISH);
+        registry.defineParameterType(new ParameterType<>("ordinal", LatencySteps.ORDINAL, Double.class,
+                (String value) -> steps.ordinal(value)));
+        String text = LatencySteps.class
+                .getMethod("thePercentileResponseTimeShouldBeUnder", double.class, String.class, int.class)
+                .getAnnotation(Then.class).value();
+        return new ExpressionFactory(registry).createExpression(text);
+    }
+}
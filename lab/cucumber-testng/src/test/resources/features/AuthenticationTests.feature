@@ -4,8 +4,13 @@ Feature: Authentication Tests
     Given The user have valid credentials
     When User passed user-name and password in api request
     Then the response should have http 200 with json response containing token
+    And the response json "/token" should exist
+    And the response time should be under 2000 ms
 
   Scenario: Invalid Authentication
     Given The user have invalid credentials
     When User passed user-name and password in api request
-    Then the response should have http 401 with json response containing error message
\ No newline at end of file
+    Then the response should have http 401 with json response containing error message
+    And the response json "/message" should be "user_name and password incorrect"
+    And the response time should be under 2000 ms
+    And the 99th percentile response time of "POST /auth" should be under 2000 ms
\ No newline at end of file
@@ -0,0 +1,6 @@
+Feature: Bulk Authentication
+
+  Scenario: Every credential in user.csv
+    Given the credentials in user.csv
+    When every credential is sent to the auth endpoint by 8 workers
+    Then every response should have the status expected for its user